@@ -0,0 +1,111 @@
+package util.jdbc.bench;
+
+import org.fakeskymeal.dao.AirlineDao;
+import org.fakeskymeal.dao.exception.DaoException;
+import org.fakeskymeal.dao.impl.AirlineDaoImpl;
+import org.fakeskymeal.dto.AirlineDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+import util.jdbc.DriverProfile;
+import util.jdbc.JdbcConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchInsertBenchmark
+ *
+ * Inserts the same number of airlines row by row with save() and batched
+ * with saveAll(), per batch size and driver profile. BULK_LOAD enables
+ * rewriteBatchedStatements, which turns each batch into one multi-row
+ * INSERT. Needs the live database of the .env file, like
+ * DriverProfileBenchmark; the inserted rows are deleted after every
+ * iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BatchInsertBenchmark {
+    private static final String NAME = "Benchmark Airline";
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"50", "500"})
+    public int batchSize;
+
+    @Param({"OLTP", "BULK_LOAD"})
+    public DriverProfile profile;
+
+    private ConnectionPool pool;
+    private AirlineDao airlineDao;
+    private List<AirlineDto> airlines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+        config.setPoolName("bench-" + profile.getKey());
+        config.setConnectionFactory(() -> JdbcConnection.createConnection(profile));
+        pool = new ConnectionPool(config);
+        airlineDao = new AirlineDaoImpl(pool);
+    }
+
+    @Setup(Level.Iteration)
+    public void createRows() {
+        airlines = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            AirlineDto dto = new AirlineDto();
+            dto.setAirlineName(NAME);
+            dto.setContactInfo("bench" + i + "@example.com");
+            airlines.add(dto);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteRows() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM airline_companies WHERE name = ?")) {
+            stmt.setString(1, NAME);
+            stmt.executeUpdate();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<AirlineDto> rowByRow() throws DaoException {
+        for (AirlineDto dto : airlines) {
+            airlineDao.save(dto);
+        }
+        return airlines;
+    }
+
+    @Benchmark
+    public List<AirlineDto> batched() throws DaoException {
+        airlineDao.saveAll(airlines, batchSize);
+        return airlines;
+    }
+}
@@ -0,0 +1,75 @@
+package util.jdbc.bench;
+
+import util.jdbc.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlockingQueuePool
+ *
+ * Baseline pool: a fixed set of connections in an ArrayBlockingQueue, as
+ * the original ConnectionPool was built. Borrowers poll the queue in slices
+ * of at most 100 ms until the timeout passes, and releases offer the
+ * connection back. There is no validation, growth or housekeeping, which
+ * makes it a lower bound for the bookkeeping cost of the real pool.
+ */
+class BlockingQueuePool implements PoolAdapter {
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all = new ArrayList<>();
+
+    BlockingQueuePool(int size, ConnectionFactory factory) throws SQLException {
+        idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            Connection conn = factory.createConnection();
+            all.add(conn);
+            idle.add(conn);
+        }
+    }
+
+    @Override
+    public Connection borrow(long timeoutMillis) throws SQLException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        try {
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SQLException("Timeout while waiting for a database connection");
+                }
+
+                Connection conn = idle.poll(Math.min(remaining, 100), TimeUnit.MILLISECONDS);
+                if (conn != null) {
+                    return conn;
+                }
+
+                Thread.yield();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ex);
+        }
+    }
+
+    @Override
+    public void release(Connection conn) {
+        idle.offer(conn);
+    }
+
+    @Override
+    public void close() {
+        idle.clear();
+        for (Connection conn : all) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // stub connections do not fail to close
+            }
+        }
+    }
+}
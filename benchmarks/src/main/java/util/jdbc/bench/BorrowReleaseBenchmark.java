@@ -0,0 +1,72 @@
+package util.jdbc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BorrowReleaseBenchmark
+ *
+ * Throughput of a borrow immediately followed by a release, which is the
+ * fixed cost every DAO call pays on top of its query. Run with -t N (or
+ * through ScalingRunner) to see how each pool behaves as the number of
+ * borrowers grows past the pool size.
+ *
+ * holdTokens burns CPU between borrow and release (Blackhole.consumeCPU),
+ * so a non-zero value moves the bottleneck from the pool to the borrowers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BorrowReleaseBenchmark {
+    private static final long BORROW_TIMEOUT_MILLIS = 30_000;
+
+    @Param({"BAG", "FAIR", "QUEUE"})
+    public PoolKind pool;
+
+    @Param({"8"})
+    public int poolSize;
+
+    @Param({"0"})
+    public long holdTokens;
+
+    private PoolAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        adapter = pool.create(poolSize, StubDriver.url("bench", 0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        adapter.close();
+    }
+
+    @Benchmark
+    public Connection borrowRelease() throws SQLException {
+        Connection conn = adapter.borrow(BORROW_TIMEOUT_MILLIS);
+        if (holdTokens > 0) {
+            Blackhole.consumeCPU(holdTokens);
+        }
+        adapter.release(conn);
+        return conn;
+    }
+}
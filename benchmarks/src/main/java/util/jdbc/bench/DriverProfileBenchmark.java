@@ -0,0 +1,110 @@
+package util.jdbc.bench;
+
+import org.fakeskymeal.dao.AirlineDao;
+import org.fakeskymeal.dao.FlightDao;
+import org.fakeskymeal.dao.InventoryDao;
+import org.fakeskymeal.dao.exception.DaoException;
+import org.fakeskymeal.dao.impl.AirlineDaoImpl;
+import org.fakeskymeal.dao.impl.FlightDaoImpl;
+import org.fakeskymeal.dao.impl.InventoryDaoImpl;
+import org.fakeskymeal.dto.AirlineDto;
+import org.fakeskymeal.dto.FlightDto;
+import org.fakeskymeal.dto.InventoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+import util.jdbc.DriverProfile;
+import util.jdbc.JdbcConnection;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DriverProfileBenchmark
+ *
+ * Runs the DAO workloads against the database of the .env file once per
+ * driver profile, so the profiles can be compared on the real queries.
+ * Unlike the other benchmarks this one needs a live database: run it from
+ * the project root so the .env file is found.
+ *
+ * pointRead    - Airline lookup by primary key.
+ * filteredRead - Flights joined to their airline by name.
+ * fullRead     - The whole inventory table.
+ * insertDelete - Insert an airline and delete it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DriverProfileBenchmark {
+    @Param({"OLTP", "BULK_LOAD", "REPORTING"})
+    public DriverProfile profile;
+
+    private ConnectionPool pool;
+    private AirlineDao airlineDao;
+    private FlightDao flightDao;
+    private InventoryDao inventoryDao;
+    private int[] airlineIds;
+    private String[] airlineNames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DaoException {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+        config.setPoolName("bench-" + profile.getKey());
+        config.setConnectionFactory(() -> JdbcConnection.createConnection(profile));
+        pool = new ConnectionPool(config);
+
+        airlineDao = new AirlineDaoImpl(pool);
+        flightDao = new FlightDaoImpl(pool);
+        inventoryDao = new InventoryDaoImpl(pool);
+
+        List<AirlineDto> airlines = airlineDao.getAll();
+        airlineIds = airlines.stream().mapToInt(AirlineDto::getAirlineId).toArray();
+        airlineNames = airlines.stream().map(AirlineDto::getAirlineName).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public AirlineDto pointRead() throws DaoException {
+        return airlineDao.get(airlineIds[ThreadLocalRandom.current().nextInt(airlineIds.length)]);
+    }
+
+    @Benchmark
+    public List<FlightDto> filteredRead() throws DaoException {
+        return flightDao.getFlightsByAirlineName(airlineNames[ThreadLocalRandom.current().nextInt(airlineNames.length)]);
+    }
+
+    @Benchmark
+    public List<InventoryDto> fullRead() throws DaoException {
+        return inventoryDao.getAll();
+    }
+
+    @Benchmark
+    public AirlineDto insertDelete() throws DaoException {
+        AirlineDto dto = new AirlineDto();
+        dto.setAirlineName("Benchmark Airline");
+        dto.setContactInfo("bench@example.com");
+        airlineDao.save(dto);
+        airlineDao.delete(dto);
+        return dto;
+    }
+}
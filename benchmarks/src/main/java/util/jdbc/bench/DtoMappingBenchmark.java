@@ -0,0 +1,111 @@
+package util.jdbc.bench;
+
+import org.fakeskymeal.dao.exception.DaoException;
+import org.fakeskymeal.dao.impl.AirlineDaoImpl;
+import org.fakeskymeal.dto.AirlineDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DtoMappingBenchmark
+ *
+ * Per-row cost of getAll() on a 100k-row stub result set, with the DTOs
+ * created the old way (Constructor.newInstance per row), through a
+ * MethodHandle resolved once, and through a constructor reference.
+ * Scores are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+    private static final int ROWS = 100_000;
+
+    /**
+     * Factory
+     *
+     * How the benchmark DAO creates its DTOs.
+     */
+    public enum Factory {
+        REFLECTION,
+        METHOD_HANDLE,
+        SUPPLIER
+    }
+
+    @Param({"REFLECTION", "METHOD_HANDLE", "SUPPLIER"})
+    public Factory factory;
+
+    private ConnectionPool pool;
+    private AirlineDaoImpl airlineDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setPoolName("bench-" + System.nanoTime());
+        config.setConnectionFactory(() -> StubRows.connection(ROWS));
+        pool = new ConnectionPool(config);
+        airlineDao = new MappingDao(pool, factory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<AirlineDto> getAll() throws DaoException {
+        return airlineDao.getAll();
+    }
+
+    /**
+     * MappingDao
+     *
+     * Airline DAO with a selectable DTO factory.
+     */
+    private static final class MappingDao extends AirlineDaoImpl {
+        private final Factory factory;
+        private final Supplier<AirlineDto> handle = constructorOf(AirlineDto.class);
+
+        MappingDao(ConnectionPool pool, Factory factory) {
+            super(pool);
+            this.factory = factory;
+        }
+
+        @Override
+        protected AirlineDto createDtoInstance() throws DaoException {
+            switch (factory) {
+                case REFLECTION:
+                    try {
+                        return AirlineDto.class.getDeclaredConstructor().newInstance();
+                    } catch (Exception e) {
+                        throw new DaoException("Unable to create DTO instance: " + e.getMessage(), e);
+                    }
+                case METHOD_HANDLE:
+                    return handle.get();
+                default:
+                    return super.createDtoInstance();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package util.jdbc.bench;
+
+import org.fakeskymeal.dao.AirlineDao;
+import org.fakeskymeal.dao.exception.DaoException;
+import org.fakeskymeal.dao.impl.AirlineDaoImpl;
+import org.fakeskymeal.dto.AirlineDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MultiGetBenchmark
+ *
+ * Loads the same airlines one get() at a time (the N+1 pattern) and with a
+ * single getAll(ids). The airlines are inserted with saveAll() when the
+ * trial starts and deleted when it ends. Needs the live database of the
+ * .env file, like DriverProfileBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MultiGetBenchmark {
+    private static final String NAME = "Benchmark Airline";
+
+    @Param({"10", "100", "2000"})
+    public int ids;
+
+    private ConnectionPool pool;
+    private AirlineDao airlineDao;
+    private List<Integer> airlineIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DaoException {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+        config.setPoolName("bench-multi-get");
+        pool = new ConnectionPool(config);
+        airlineDao = new AirlineDaoImpl(pool);
+
+        List<AirlineDto> airlines = new ArrayList<>(ids);
+        for (int i = 0; i < ids; i++) {
+            AirlineDto dto = new AirlineDto();
+            dto.setAirlineName(NAME);
+            dto.setContactInfo("bench" + i + "@example.com");
+            airlines.add(dto);
+        }
+        airlineDao.saveAll(airlines);
+        airlineIds = airlines.stream().map(AirlineDto::getAirlineId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM airline_companies WHERE name = ?")) {
+            stmt.setString(1, NAME);
+            stmt.executeUpdate();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, AirlineDto> loopedGet() throws DaoException {
+        Map<Integer, AirlineDto> byId = new HashMap<>();
+        for (Integer id : airlineIds) {
+            byId.put(id, airlineDao.get(id));
+        }
+        return byId;
+    }
+
+    @Benchmark
+    public Map<Integer, AirlineDto> multiGet() throws DaoException {
+        return airlineDao.getAll(airlineIds);
+    }
+}
@@ -0,0 +1,31 @@
+package util.jdbc.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * PoolAdapter
+ *
+ * Common borrow/release view over the pool implementations being compared,
+ * so every benchmark drives them through exactly the same code path.
+ */
+public interface PoolAdapter extends AutoCloseable {
+    /**
+     * borrow
+     *
+     * @param long timeoutMillis - How long to wait for a connection.
+     * @return Connection - The borrowed connection.
+     * @throws SQLException If no connection became available in time.
+     */
+    Connection borrow(long timeoutMillis) throws SQLException;
+
+    /**
+     * release
+     *
+     * @param Connection conn - A connection obtained from borrow().
+     */
+    void release(Connection conn);
+
+    @Override
+    void close();
+}
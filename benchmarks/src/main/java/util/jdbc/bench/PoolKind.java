@@ -0,0 +1,79 @@
+package util.jdbc.bench;
+
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * PoolKind
+ *
+ * The pool implementations compared by the benchmarks. Used directly as a
+ * JMH @Param, so the names are what appears in the results.
+ *
+ * BAG   - util.jdbc.ConnectionPool with its default lock-free borrowing.
+ * FAIR  - util.jdbc.ConnectionPool with fair (FIFO) admission enabled.
+ * QUEUE - An ArrayBlockingQueue pool, the design ConnectionPool replaced.
+ */
+public enum PoolKind {
+    BAG {
+        @Override
+        PoolAdapter create(int size, String url) {
+            return wrap(new ConnectionPool(config(size, url)));
+        }
+    },
+    FAIR {
+        @Override
+        PoolAdapter create(int size, String url) {
+            ConnectionPoolConfig config = config(size, url);
+            config.setFairAdmission(true);
+            return wrap(new ConnectionPool(config));
+        }
+    },
+    QUEUE {
+        @Override
+        PoolAdapter create(int size, String url) throws SQLException {
+            return new BlockingQueuePool(size, () -> DriverManager.getConnection(url));
+        }
+    };
+
+    /**
+     * create
+     *
+     * Opens a pool of the given fixed size backed by the stub driver.
+     *
+     * @param int size - The number of connections.
+     * @param String url - The stub driver URL to open connections with.
+     * @return PoolAdapter - The ready-to-use pool.
+     * @throws SQLException If the connections cannot be opened.
+     */
+    abstract PoolAdapter create(int size, String url) throws SQLException;
+
+    private static ConnectionPoolConfig config(int size, String url) {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(size);
+        config.setPoolName("bench-" + System.nanoTime());
+        config.setConnectionFactory(() -> DriverManager.getConnection(url));
+        return config;
+    }
+
+    private static PoolAdapter wrap(ConnectionPool pool) {
+        return new PoolAdapter() {
+            @Override
+            public Connection borrow(long timeoutMillis) throws SQLException {
+                return pool.getConnection(timeoutMillis);
+            }
+
+            @Override
+            public void release(Connection conn) {
+                pool.releaseConnection(conn);
+            }
+
+            @Override
+            public void close() {
+                pool.shutdown();
+            }
+        };
+    }
+}
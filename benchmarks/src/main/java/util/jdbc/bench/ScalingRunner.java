@@ -0,0 +1,65 @@
+package util.jdbc.bench;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ScalingRunner
+ *
+ * Runs BorrowReleaseBenchmark for every pool implementation at 1, 2, 4 ...
+ * 256 threads and prints the throughput side by side, one row per thread
+ * count. The warm-up and measurement are shorter than the benchmark's own
+ * defaults to keep the full sweep under a few minutes.
+ *
+ * Usage: java -cp target/benchmarks.jar util.jdbc.bench.ScalingRunner [maxThreads]
+ */
+public class ScalingRunner {
+    private static final int DEFAULT_MAX_THREADS = 256;
+
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_THREADS;
+        Map<Integer, Map<PoolKind, Double>> scores = new LinkedHashMap<>();
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(BorrowReleaseBenchmark.class.getName() + ".borrowRelease")
+                    .threads(threads)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(1))
+                    .forks(1)
+                    .build();
+
+            Map<PoolKind, Double> row = new EnumMap<>(PoolKind.class);
+            for (RunResult result : new Runner(options).run()) {
+                PoolKind kind = PoolKind.valueOf(result.getParams().getParam("pool"));
+                row.put(kind, result.getPrimaryResult().getScore());
+            }
+            scores.put(threads, row);
+        }
+
+        System.out.println();
+        System.out.println("Borrow/release throughput (ops/ms), pool size 8:");
+        System.out.printf("%8s", "threads");
+        for (PoolKind kind : PoolKind.values()) {
+            System.out.printf(" %12s", kind);
+        }
+        System.out.println();
+        for (Map.Entry<Integer, Map<PoolKind, Double>> entry : scores.entrySet()) {
+            System.out.printf("%8d", entry.getKey());
+            for (PoolKind kind : PoolKind.values()) {
+                System.out.printf(" %12.1f", entry.getValue().getOrDefault(kind, Double.NaN));
+            }
+            System.out.println();
+        }
+    }
+}
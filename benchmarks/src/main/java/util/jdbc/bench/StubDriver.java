@@ -0,0 +1,107 @@
+package util.jdbc.bench;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * StubDriver
+ *
+ * In-process JDBC driver for the benchmarks. It accepts URLs of the form
+ * jdbc:stub:catalog[?connectLatencyMicros=N] and returns StubConnections
+ * without any network or server involved. The optional connect latency
+ * parks the opening thread to mimic the cost of a real handshake.
+ *
+ * The driver registers itself with the DriverManager when the class is
+ * loaded, like any other JDBC driver.
+ */
+public class StubDriver implements Driver {
+    public static final String URL_PREFIX = "jdbc:stub:";
+    private static final String LATENCY_PARAMETER = "connectLatencyMicros=";
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * url
+     *
+     * Builds a stub URL.
+     *
+     * @param String catalog - The catalog the connections report.
+     * @param long connectLatencyMicros - Simulated time to open a connection (0 for none).
+     * @return String - The JDBC URL.
+     */
+    public static String url(String catalog, long connectLatencyMicros) {
+        String url = URL_PREFIX + catalog;
+        return connectLatencyMicros > 0 ? url + "?" + LATENCY_PARAMETER + connectLatencyMicros : url;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null; // not ours, let the DriverManager try the next driver
+        }
+
+        String catalog = url.substring(URL_PREFIX.length());
+        long latencyMicros = 0;
+        int query = catalog.indexOf('?');
+        if (query >= 0) {
+            String parameters = catalog.substring(query + 1);
+            catalog = catalog.substring(0, query);
+            if (parameters.startsWith(LATENCY_PARAMETER)) {
+                try {
+                    latencyMicros = Long.parseLong(parameters.substring(LATENCY_PARAMETER.length()));
+                } catch (NumberFormatException e) {
+                    throw new SQLException("Invalid stub URL: " + url, e);
+                }
+            }
+        }
+
+        if (latencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        }
+        return new StubConnection(catalog);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,89 @@
+package util.jdbc.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * StubRows
+ *
+ * Connections whose every query returns the same number of airline rows
+ * (id, name, contact_info) from memory, for measuring the row mapping of
+ * the DAOs without a database. Session calls go to a StubConnection.
+ *
+ * The statement and result set are dynamic proxies, so every column read
+ * has a constant proxy overhead; compare variants against each other
+ * rather than against a real driver.
+ */
+final class StubRows {
+    private static final String NAME = "Stub Airline";
+    private static final String CONTACT = "stub@example.com";
+
+    private StubRows() {
+    }
+
+    /**
+     * connection
+     *
+     * @param int rows - Rows returned by every query.
+     * @return Connection - A new stub connection.
+     */
+    static Connection connection(int rows) {
+        StubConnection session = new StubConnection("stub");
+        return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> statement(rows);
+            default -> delegate(session, method, args);
+        });
+    }
+
+    private static PreparedStatement statement(int rows) {
+        boolean[] closed = { false };
+        return proxy(PreparedStatement.class, (proxy, method, args) -> switch (method.getName()) {
+            case "executeQuery" -> resultSet(rows);
+            case "close" -> closed[0] = true;
+            case "isClosed" -> closed[0];
+            default -> defaultValue(method);
+        });
+    }
+
+    private static ResultSet resultSet(int rows) {
+        int[] row = { 0 };
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++row[0] <= rows;
+            case "getInt" -> row[0];
+            case "getString" -> (Integer) args[0] == 2 ? NAME : CONTACT;
+            default -> defaultValue(method);
+        });
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubRows.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
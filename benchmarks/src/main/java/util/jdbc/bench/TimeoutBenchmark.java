@@ -0,0 +1,67 @@
+package util.jdbc.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimeoutBenchmark
+ *
+ * Borrows from a pool whose only connection is held for the whole trial,
+ * so every call ends in a timeout. The sampled time shows how closely each
+ * pool honors the requested timeout and how much the overshoot grows when
+ * many threads time out together (-t N).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeoutBenchmark {
+    @Param({"BAG", "FAIR", "QUEUE"})
+    public PoolKind pool;
+
+    @Param({"1", "10"})
+    public long timeoutMillis;
+
+    private PoolAdapter adapter;
+    private Connection held;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        adapter = pool.create(1, StubDriver.url("bench", 0));
+        held = adapter.borrow(1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        adapter.release(held);
+        adapter.close();
+    }
+
+    @Benchmark
+    public Object borrowTimesOut() {
+        try {
+            Connection conn = adapter.borrow(timeoutMillis);
+            adapter.release(conn);
+            throw new IllegalStateException("Borrowed from an exhausted pool");
+        } catch (SQLException expected) {
+            return expected;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.fakeskymeal.mapping.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RowMapperProcessor
+ *
+ * Generates a FooMapper and a FooBinder for every DTO annotated with
+ * org.fakeskymeal.dto.mapping.Mapped. The generated classes only hold
+ * static methods that call the DTO's typed getters and setters and the
+ * matching typed ResultSet/PreparedStatement methods with constant
+ * column indexes, so mapping a row allocates nothing beyond the values
+ * themselves.
+ *
+ * The annotations are matched by name, so this project does not depend on
+ * the main project.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.MAPPED)
+public class RowMapperProcessor extends AbstractProcessor {
+    static final String MAPPED = "org.fakeskymeal.dto.mapping.Mapped";
+    static final String COLUMN = "org.fakeskymeal.dto.mapping.Column";
+    private static final String GENERATED = "@javax.annotation.processing.Generated(\"" + RowMapperProcessor.class.getName() + "\")";
+
+    /**
+     * JdbcType
+     *
+     * The Java field types the processor supports, with the JDBC accessors
+     * and the parser for update params.
+     */
+    private enum JdbcType {
+        INT("int", "Int", "Integer.parseInt(%s)"),
+        LONG("long", "Long", "Long.parseLong(%s)"),
+        FLOAT("float", "Float", "Float.parseFloat(%s)"),
+        DOUBLE("double", "Double", "Double.parseDouble(%s)"),
+        BOOLEAN("boolean", "Boolean", "Boolean.parseBoolean(%s)"),
+        STRING("java.lang.String", "String", "%s"),
+        BIG_DECIMAL("java.math.BigDecimal", "BigDecimal", "new java.math.BigDecimal(%s)"),
+        DATE("java.sql.Date", "Date", "java.sql.Date.valueOf(%s)"),
+        TIMESTAMP("java.sql.Timestamp", "Timestamp", "java.sql.Timestamp.valueOf(%s)");
+
+        final String javaType;
+        final String accessor;
+        final String parser;
+
+        JdbcType(String javaType, String accessor, String parser) {
+            this.javaType = javaType;
+            this.accessor = accessor;
+            this.parser = parser;
+        }
+
+        static JdbcType of(TypeMirror type) {
+            for (JdbcType jdbcType : values()) {
+                if (jdbcType.javaType.equals(type.toString())) {
+                    return jdbcType;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * MappedColumn
+     *
+     * A @Column field with its accessors.
+     */
+    private record MappedColumn(String column, boolean id, JdbcType type, String getter, String setter) {
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement mapped = processingEnv.getElementUtils().getTypeElement(MAPPED);
+        if (mapped == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(mapped)) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                error(element, "@Mapped is only supported on concrete classes");
+                continue;
+            }
+            TypeElement dto = (TypeElement) element;
+            List<MappedColumn> columns = getColumns(dto);
+            if (columns != null) {
+                generate(dto, columns);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * getColumns
+     *
+     * @param TypeElement dto - The @Mapped DTO.
+     * @return List - The @Column fields in declaration order, or null after reporting an error.
+     */
+    private List<MappedColumn> getColumns(TypeElement dto) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(dto));
+        List<MappedColumn> columns = new ArrayList<>();
+        int ids = 0;
+        boolean valid = true;
+
+        for (VariableElement field : ElementFilter.fieldsIn(dto.getEnclosedElements())) {
+            AnnotationMirror annotation = findAnnotation(field, COLUMN);
+            if (annotation == null) {
+                continue;
+            }
+
+            String column = null;
+            boolean id = false;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation.getElementValues().entrySet()) {
+                switch (value.getKey().getSimpleName().toString()) {
+                    case "value" -> column = (String) value.getValue().getValue();
+                    case "id" -> id = (Boolean) value.getValue().getValue();
+                    default -> { }
+                }
+            }
+
+            JdbcType type = JdbcType.of(field.asType());
+            if (type == null) {
+                error(field, "Unsupported @Column type " + field.asType());
+                valid = false;
+                continue;
+            }
+
+            String name = field.getSimpleName().toString();
+            // A boolean field named isFoo has the accessors isFoo() and setFoo()
+            String property = type == JdbcType.BOOLEAN && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))
+                    ? name.substring(2)
+                    : capitalize(name);
+            String getter = findMethod(methods, 0, type == JdbcType.BOOLEAN ? "is" + property : "get" + property, "get" + property);
+            String setter = findMethod(methods, 1, "set" + property);
+            if (getter == null || setter == null) {
+                error(field, "@Column field " + name + " needs a public getter and setter");
+                valid = false;
+                continue;
+            }
+
+            ids += id ? 1 : 0;
+            columns.add(new MappedColumn(column, id, type, getter, setter));
+        }
+
+        if (ids != 1) {
+            error(dto, "@Mapped DTO needs exactly one @Column(id = true), found " + ids);
+            valid = false;
+        }
+        return valid ? columns : null;
+    }
+
+    private void generate(TypeElement dto, List<MappedColumn> columns) {
+        String packageName = ((PackageElement) dto.getEnclosingElement()).getQualifiedName().toString();
+        String dtoName = dto.getSimpleName().toString();
+        MappedColumn id = columns.stream().filter(MappedColumn::id).findFirst().orElseThrow();
+        List<MappedColumn> values = columns.stream().filter(column -> !column.id()).toList();
+
+        StringBuilder mapper = new StringBuilder();
+        mapper.append("package ").append(packageName).append(";\n\n")
+                .append("import java.sql.ResultSet;\n")
+                .append("import java.sql.SQLException;\n\n")
+                .append("/**\n")
+                .append(" * ").append(dtoName).append("Mapper\n")
+                .append(" *\n")
+                .append(" * Copies result set rows into ").append(dtoName).append(". Generated from its\n")
+                .append(" * @Column fields; the constants are the 1-based SELECT positions.\n")
+                .append(" */\n")
+                .append(GENERATED).append('\n')
+                .append("public final class ").append(dtoName).append("Mapper {\n")
+                .append("    public static final String COLUMNS = \"")
+                .append(String.join(", ", columns.stream().map(MappedColumn::column).toList())).append("\";\n");
+        for (int i = 0; i < columns.size(); i++) {
+            mapper.append("    public static final int ").append(constant(columns.get(i).column())).append(" = ").append(i + 1).append(";\n");
+        }
+        mapper.append('\n')
+                .append("    private ").append(dtoName).append("Mapper() {\n")
+                .append("    }\n\n")
+                .append("    public static void read(ResultSet result, ").append(dtoName).append(" dto) throws SQLException {\n");
+        for (MappedColumn column : columns) {
+            mapper.append("        dto.").append(column.setter()).append("(result.get").append(column.type().accessor)
+                    .append('(').append(constant(column.column())).append("));\n");
+        }
+        mapper.append("    }\n\n")
+                .append("    public static void readGeneratedId(ResultSet keys, ").append(dtoName).append(" dto) throws SQLException {\n")
+                .append("        dto.").append(id.setter()).append("(keys.get").append(id.type().accessor).append("(1));\n")
+                .append("    }\n")
+                .append("}\n");
+
+        StringBuilder binder = new StringBuilder();
+        binder.append("package ").append(packageName).append(";\n\n")
+                .append("import java.sql.PreparedStatement;\n")
+                .append("import java.sql.SQLException;\n\n")
+                .append("/**\n")
+                .append(" * ").append(dtoName).append("Binder\n")
+                .append(" *\n")
+                .append(" * Binds ").append(dtoName).append(" values to statements. Generated from its @Column\n")
+                .append(" * fields; INSERT and UPDATE take VALUE_COLUMNS in order, UPDATE and\n")
+                .append(" * DELETE end with \"WHERE ").append(id.column()).append(" = ?\".\n")
+                .append(" */\n")
+                .append(GENERATED).append('\n')
+                .append("public final class ").append(dtoName).append("Binder {\n")
+                .append("    public static final String VALUE_COLUMNS = \"")
+                .append(String.join(", ", values.stream().map(MappedColumn::column).toList())).append("\";\n\n")
+                .append("    private ").append(dtoName).append("Binder() {\n")
+                .append("    }\n\n")
+                .append("    public static void bindInsert(PreparedStatement stmt, ").append(dtoName).append(" dto) throws SQLException {\n");
+        for (int i = 0; i < values.size(); i++) {
+            MappedColumn column = values.get(i);
+            binder.append("        stmt.set").append(column.type().accessor).append('(').append(i + 1)
+                    .append(", dto.").append(column.getter()).append("());\n");
+        }
+        binder.append("    }\n\n")
+                .append("    public static void bindUpdate(PreparedStatement stmt, ").append(dtoName).append(" dto, String[] params) throws SQLException {\n");
+        for (int i = 0; i < values.size(); i++) {
+            MappedColumn column = values.get(i);
+            binder.append("        stmt.set").append(column.type().accessor).append('(').append(i + 1).append(", ")
+                    .append(column.type().parser.formatted("params[" + i + "]")).append(");\n");
+        }
+        binder.append("        stmt.set").append(id.type().accessor).append('(').append(values.size() + 1)
+                .append(", dto.").append(id.getter()).append("());\n")
+                .append("    }\n\n")
+                .append("    public static void apply(").append(dtoName).append(" dto, String[] params) {\n");
+        for (int i = 0; i < values.size(); i++) {
+            MappedColumn column = values.get(i);
+            binder.append("        dto.").append(column.setter()).append('(')
+                    .append(column.type().parser.formatted("params[" + i + "]")).append(");\n");
+        }
+        binder.append("    }\n\n")
+                .append("    public static void bindId(PreparedStatement stmt, ").append(dtoName).append(" dto) throws SQLException {\n")
+                .append("        stmt.set").append(id.type().accessor).append("(1, dto.").append(id.getter()).append("());\n")
+                .append("    }\n")
+                .append("}\n");
+
+        write(dto, packageName + "." + dtoName + "Mapper", mapper);
+        write(dto, packageName + "." + dtoName + "Binder", binder);
+    }
+
+    private void write(TypeElement dto, String className, CharSequence source) {
+        Filer filer = processingEnv.getFiler();
+        try (Writer writer = filer.createSourceFile(className, dto).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(dto, "Unable to write " + className + ": " + e.getMessage());
+        }
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String name) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static String findMethod(List<ExecutableElement> methods, int parameters, String... names) {
+        for (String name : names) {
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                        && method.getModifiers().contains(Modifier.PUBLIC)) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String constant(String column) {
+        return column.toUpperCase(Locale.ROOT);
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -18,6 +18,7 @@ import org.fakeskymeal.dto.BeverageDto;
 import org.fakeskymeal.dto.MealDto;
 import util.jdbc.ConnectionPool;
 import util.jdbc.ConnectionPoolSingleton;
+import util.jdbc.DataSourceRegistry;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,14 +33,15 @@ import java.util.logging.Logger;
 public class App {
     private static final Logger LOGGER = Logger.getLogger(App.class.getName());
     private static final ConnectionPool pool = ConnectionPoolSingleton.getInstance();
+    private static final DataSourceRegistry registry = ConnectionPoolSingleton.getRegistry();
 
     public static void main(String[] args) {
         System.out.println("=== Starting Catering Order Creation ===");
 
         try {
-            CateringOrderDao orderDao = new CateringOrderDaoImpl(pool);
-            BeverageDao beverageDao = new BeverageDaoImpl(pool);
-            MealDao mealDao = new MealDaoImpl(pool);
+            CateringOrderDao orderDao = new CateringOrderDaoImpl(registry);
+            BeverageDao beverageDao = new BeverageDaoImpl(registry);
+            MealDao mealDao = new MealDaoImpl(registry);
             FlightDao flightDao = new FlightDaoImpl(pool);
 
             // Load an existing flight
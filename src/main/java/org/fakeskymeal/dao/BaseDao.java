@@ -2,7 +2,10 @@ package org.fakeskymeal.dao;
 
 import org.fakeskymeal.dao.exception.DaoException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface BaseDao<T> {
     /**
@@ -18,9 +21,35 @@ public interface BaseDao<T> {
 
     List<T> getAll() throws DaoException;
 
+    Map<Integer, T> getAll(Collection<Integer> ids) throws DaoException;
+
+    Stream<T> streamAll() throws DaoException;
+
+    Stream<T> streamAll(int fetchSize) throws DaoException;
+
+    List<T> find(Criteria criteria) throws DaoException;
+
+    Page<T> page(Integer afterId, int limit, SortOrder order) throws DaoException;
+
     void save(T dto) throws DaoException;
 
+    void saveAll(List<T> dtos) throws DaoException;
+
+    void saveAll(List<T> dtos, int batchSize) throws DaoException;
+
     void update(T dto, String[] params) throws DaoException;
 
+    void updateAll(List<T> dtos, List<String[]> params) throws DaoException;
+
+    void updateAll(List<T> dtos, List<String[]> params, int batchSize) throws DaoException;
+
     void delete(T dto) throws DaoException;
+
+    void deleteAll(List<T> dtos) throws DaoException;
+
+    void deleteAll(List<T> dtos, int batchSize) throws DaoException;
+
+    int deleteAllById(Collection<Integer> ids) throws DaoException;
+
+    int deleteAllById(Collection<Integer> ids, int batchSize) throws DaoException;
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package org.fakeskymeal.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria
+ *
+ * Query built from predicates, orderings and a limit, run with
+ * BaseDao.find(). Predicates are combined with AND. Columns are checked
+ * against the DAO's column whitelist when the query runs; values are
+ * always bound as parameters.
+ *
+ *     new Criteria()
+ *         .eq("inventory_id", 4)
+ *         .between("quantity", 10, 50)
+ *         .orderBy("name", SortOrder.ASC)
+ *         .limit(20);
+ *
+ * The SQL of a query depends only on its shape (see getShape()), so the
+ * DAO builds it once per shape and caches it.
+ */
+public class Criteria {
+
+    /**
+     * Operator
+     *
+     * Comparison of a predicate.
+     */
+    public enum Operator {
+        EQ("="),
+        NE("<>"),
+        LT("<"),
+        LE("<="),
+        GT(">"),
+        GE(">="),
+        BETWEEN("BETWEEN"),
+        IN("IN");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+    }
+
+    /**
+     * Predicate
+     *
+     * @param column - The column compared.
+     * @param operator - The comparison.
+     * @param values - The bound values: one, two for BETWEEN, one or more for IN.
+     */
+    public record Predicate(String column, Operator operator, List<Object> values) {
+    }
+
+    /**
+     * Order
+     *
+     * @param column - The column sorted by.
+     * @param direction - Ascending or descending.
+     */
+    public record Order(String column, SortOrder direction) {
+    }
+
+    /**
+     * Shape
+     *
+     * Everything the SQL of a query depends on: the columns and operators,
+     * the number of IN values, the orderings and whether there is a limit.
+     *
+     * @param predicates - Column, operator and value count of every predicate.
+     * @param orders - The orderings.
+     * @param limited - Whether the query has a LIMIT.
+     */
+    public record Shape(List<PredicateShape> predicates, List<Order> orders, boolean limited) {
+    }
+
+    /**
+     * PredicateShape
+     *
+     * @param column - The column compared.
+     * @param operator - The comparison.
+     * @param arity - The number of placeholders.
+     */
+    public record PredicateShape(String column, Operator operator, int arity) {
+    }
+
+    private final List<Predicate> predicates = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private Integer limit;
+
+    public <V> Criteria eq(String column, V value) {
+        return add(column, Operator.EQ, value);
+    }
+
+    public <V> Criteria ne(String column, V value) {
+        return add(column, Operator.NE, value);
+    }
+
+    public <V extends Comparable<? super V>> Criteria lt(String column, V value) {
+        return add(column, Operator.LT, value);
+    }
+
+    public <V extends Comparable<? super V>> Criteria le(String column, V value) {
+        return add(column, Operator.LE, value);
+    }
+
+    public <V extends Comparable<? super V>> Criteria gt(String column, V value) {
+        return add(column, Operator.GT, value);
+    }
+
+    public <V extends Comparable<? super V>> Criteria ge(String column, V value) {
+        return add(column, Operator.GE, value);
+    }
+
+    /**
+     * between
+     *
+     * @param String column - The column compared.
+     * @param V low - The inclusive lower bound.
+     * @param V high - The inclusive upper bound.
+     * @return Criteria - This criteria.
+     */
+    public <V extends Comparable<? super V>> Criteria between(String column, V low, V high) {
+        Objects.requireNonNull(low, "BETWEEN needs a lower bound");
+        Objects.requireNonNull(high, "BETWEEN needs an upper bound");
+        predicates.add(new Predicate(requireColumn(column), Operator.BETWEEN, List.of(low, high)));
+        return this;
+    }
+
+    /**
+     * in
+     *
+     * @param String column - The column compared.
+     * @param Collection values - The values to match; must not be empty.
+     * @return Criteria - This criteria.
+     */
+    public <V> Criteria in(String column, Collection<V> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("IN needs at least one value for " + column);
+        }
+        predicates.add(new Predicate(requireColumn(column), Operator.IN, List.copyOf(values)));
+        return this;
+    }
+
+    public Criteria orderBy(String column, SortOrder direction) {
+        orders.add(new Order(requireColumn(column), Objects.requireNonNull(direction)));
+        return this;
+    }
+
+    public Criteria limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Predicate> getPredicates() {
+        return List.copyOf(predicates);
+    }
+
+    public List<Order> getOrders() {
+        return List.copyOf(orders);
+    }
+
+    /**
+     * getLimit
+     *
+     * @return Integer - The maximum number of rows, null for no limit.
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * getShape
+     *
+     * IN lists are rounded up to the next power of two, so lists of similar
+     * length share one cached statement; the DAO pads the bound values by
+     * repeating the last one.
+     *
+     * @return Shape - The cache key for the SQL of this query.
+     */
+    public Shape getShape() {
+        List<PredicateShape> shapes = new ArrayList<>(predicates.size());
+        for (Predicate predicate : predicates) {
+            shapes.add(new PredicateShape(predicate.column(), predicate.operator(), getArity(predicate)));
+        }
+        return new Shape(List.copyOf(shapes), List.copyOf(orders), limit != null);
+    }
+
+    /**
+     * getArity
+     *
+     * @param Predicate predicate - A predicate of this criteria.
+     * @return int - The number of placeholders the predicate's SQL has.
+     */
+    public static int getArity(Predicate predicate) {
+        int count = predicate.values().size();
+        return predicate.operator() == Operator.IN ? getPaddedSize(count) : count;
+    }
+
+    /**
+     * getPaddedSize
+     *
+     * @param int count - The number of values of an IN list.
+     * @return int - The number of placeholders for them: count rounded up to the next power of two.
+     */
+    public static int getPaddedSize(int count) {
+        return count <= 1 ? count : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    private Criteria add(String column, Operator operator, Object value) {
+        // A null value is bound as NULL and, as in SQL, matches no row
+        predicates.add(new Predicate(requireColumn(column), operator, Collections.singletonList(value)));
+        return this;
+    }
+
+    private static String requireColumn(String column) {
+        if (column == null || column.isBlank()) {
+            throw new IllegalArgumentException("Column name is required");
+        }
+        return column;
+    }
+}
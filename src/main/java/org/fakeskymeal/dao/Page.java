@@ -0,0 +1,36 @@
+package org.fakeskymeal.dao;
+
+import java.util.List;
+
+/**
+ * Page
+ *
+ * One page of rows returned by BaseDao.page(), with the continuation token
+ * to pass as afterId for the next page.
+ */
+public class Page<T> {
+    private final List<T> rows;
+    private final Integer nextAfterId;
+
+    public Page(List<T> rows, Integer nextAfterId) {
+        this.rows = List.copyOf(rows);
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * getNextAfterId
+     *
+     * @return Integer - The primary key the next page starts after, null on the last page.
+     */
+    public Integer getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
@@ -0,0 +1,11 @@
+package org.fakeskymeal.dao;
+
+/**
+ * SortOrder
+ *
+ * Direction of an ORDER BY.
+ */
+public enum SortOrder {
+    ASC,
+    DESC
+}
@@ -0,0 +1,32 @@
+package org.fakeskymeal.dao.exception;
+
+/**
+ * BatchException
+ *
+ * Thrown by the batch operations of BaseDao when part of a batch fails. The
+ * transaction the failure happened in is rolled back, so none of its rows are
+ * written. Indexes refer to positions in the list passed to the batch call.
+ *
+ * Failed indexes are the rows the database rejected; when the driver cannot
+ * tell which rows those are, every row of the rolled back transaction is
+ * reported. Committed indexes are the rows already written by the
+ * transactions of other facility shards, and are empty without sharding.
+ */
+public class BatchException extends DaoException {
+    private final int[] failedIndexes;
+    private final int[] committedIndexes;
+
+    public BatchException(String message, int[] failedIndexes, int[] committedIndexes, Throwable cause) {
+        super(message, cause);
+        this.failedIndexes = failedIndexes.clone();
+        this.committedIndexes = committedIndexes.clone();
+    }
+
+    public int[] getFailedIndexes() {
+        return failedIndexes.clone();
+    }
+
+    public int[] getCommittedIndexes() {
+        return committedIndexes.clone();
+    }
+}
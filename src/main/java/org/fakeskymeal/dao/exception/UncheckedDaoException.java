@@ -0,0 +1,19 @@
+package org.fakeskymeal.dao.exception;
+
+/**
+ * UncheckedDaoException
+ *
+ * Carries a DaoException out of code that cannot throw checked exceptions,
+ * such as the Stream returned by BaseDao.streamAll().
+ */
+public class UncheckedDaoException extends RuntimeException {
+
+    public UncheckedDaoException(DaoException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized DaoException getCause() {
+        return (DaoException) super.getCause();
+    }
+}
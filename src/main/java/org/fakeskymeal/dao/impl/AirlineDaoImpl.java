@@ -3,6 +3,7 @@ package org.fakeskymeal.dao.impl;
 import java.io.IOException;
 import java.sql.*;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,10 +24,11 @@ public class AirlineDaoImpl extends BaseDaoImpl<AirlineDto> implements AirlineDa
 
     String _tableName = "airline_companies";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "name", "contact_info");
     Properties _queries;
 
     public AirlineDaoImpl(ConnectionPool pool) {
-        super(pool, AirlineDto.class);
+        super(pool, AirlineDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -136,16 +138,15 @@ public class AirlineDaoImpl extends BaseDaoImpl<AirlineDto> implements AirlineDa
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param AirlineDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, AirlineDto dto) throws SQLException {
-        dto.setAirlineId(keys.getInt(1));
+    protected void setGeneratedId(int id, AirlineDto dto) {
+        dto.setAirlineId(id);
     }
 
     /**
@@ -241,4 +242,16 @@ public class AirlineDaoImpl extends BaseDaoImpl<AirlineDto> implements AirlineDa
     protected String getPrimaryKey() {
         return _primaryKey;
     }
+
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
 }
@@ -1,22 +1,56 @@
 package org.fakeskymeal.dao.impl;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.logging.Level;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.fakeskymeal.dao.BaseDao;
+import org.fakeskymeal.dao.Criteria;
+import org.fakeskymeal.dao.Page;
+import org.fakeskymeal.dao.SortOrder;
 import org.fakeskymeal.dto.BaseDto;
+import org.fakeskymeal.dao.exception.BatchException;
 import org.fakeskymeal.dao.exception.DaoException;
+import org.fakeskymeal.dao.exception.UncheckedDaoException;
 import util.jdbc.ConnectionPool;
+import util.jdbc.DataSourceRegistry;
+import util.jdbc.Priority;
 
 /**
  * BaseDaoImpl
  *
  * Base class for Data Access Object implementations.
  *
+ * Tables that are split across facility shards (see DataSourceRegistry)
+ * override isSharded(): their writes go to the shard returned by
+ * getShardPool(), or getShardPools() for batches, and reads fan out to
+ * every shard in parallel unless they filter on the facility column.
+ *
  * Modifications:
  *
  * 		04/20/2024 - jhui - Created
@@ -24,12 +58,62 @@ import util.jdbc.ConnectionPool;
  */
 public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
     private static final Logger LOGGER = Logger.getLogger(BaseDaoImpl.class.getName());
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    public static final int MAX_PARALLEL_QUERIES = 4;
+    private static final int MAX_CACHED_QUERIES = 256;
     protected final ConnectionPool pool;
-    private final Class<T> dtoClass;
+    protected final DataSourceRegistry registry;
+    private final Supplier<T> dtoFactory;
+    private final Map<Criteria.Shape, String> queryCache = new ConcurrentHashMap<>();
+
+    public BaseDaoImpl(ConnectionPool pool, Supplier<T> dtoFactory) {
+        this(DataSourceRegistry.single(pool), dtoFactory);
+    }
+
+    public BaseDaoImpl(DataSourceRegistry registry, Supplier<T> dtoFactory) {
+        this.registry = registry;
+        this.pool = registry.getGlobalPool();
+        this.dtoFactory = Objects.requireNonNull(dtoFactory, "A DTO factory is required");
+    }
 
     public BaseDaoImpl(ConnectionPool pool, Class<T> dtoClass) {
-        this.pool = pool;
-        this.dtoClass = dtoClass;
+        this(pool, constructorOf(dtoClass));
+    }
+
+    public BaseDaoImpl(DataSourceRegistry registry, Class<T> dtoClass) {
+        this(registry, constructorOf(dtoClass));
+    }
+
+    /**
+     * constructorOf
+     *
+     * Resolves the public no-argument constructor of a DTO class once, for
+     * DAOs that pass a Class instead of a constructor reference.
+     *
+     * @param Class dtoClass - The DTO class.
+     * @return Supplier - Creates a new instance per call through a MethodHandle.
+     * @throws IllegalArgumentException If the class has no public no-argument constructor.
+     */
+    protected static <T> Supplier<T> constructorOf(Class<T> dtoClass) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup()
+                    .findConstructor(dtoClass, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(dtoClass.getName() + " needs a public no-argument constructor", e);
+        }
+
+        return () -> {
+            try {
+                return dtoClass.cast(constructor.invokeExact());
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
     }
 
     // Abstract hooks for subclass-specific logic
@@ -37,7 +121,7 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
     protected abstract void prepareUpdate(PreparedStatement stmt, T dto, String[] params) throws SQLException;
     protected abstract void applyParamsToDto(T dto, String[] params);
     protected abstract void prepareDelete(PreparedStatement stmt, T dto) throws SQLException;
-    protected abstract void setGeneratedId(ResultSet keys, T dto) throws SQLException;
+    protected abstract void setGeneratedId(int id, T dto);
 
     // Default required implementation
     protected abstract void convertRStoDto(ResultSet results, T dto) throws DaoException;
@@ -47,19 +131,243 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
     protected abstract String getUpdateQuery();
     public abstract String getTableName();
     protected abstract String getPrimaryKey();
+    protected abstract Set<String> getColumns();
+
+    /**
+     * getWritePriority
+     *
+     * Pool lane used by save, update and delete. DAOs for time-critical writes
+     * override this to use the CRITICAL lane.
+     *
+     * @return Priority - The lane for writes.
+     */
+    protected Priority getWritePriority() {
+        return Priority.NORMAL;
+    }
+
+    /**
+     * isSharded
+     *
+     * Whether the rows of this table are split across the facility shards.
+     *
+     * @return boolean - False for the tables shared by every facility.
+     */
+    protected boolean isSharded() {
+        return false;
+    }
+
+    /**
+     * getShardColumn
+     *
+     * Column holding the facility id that the table is sharded by. Reads
+     * filtering on it go to a single shard instead of all of them.
+     *
+     * @return String - The column name, or null if rows are placed some other way.
+     */
+    protected String getShardColumn() {
+        return null;
+    }
+
+    /**
+     * getShardPool
+     *
+     * Pool holding the row of the given DTO, used by save, update and delete.
+     *
+     * @param T dto - The row being written.
+     * @return ConnectionPool - The shard of the row; the global pool for unsharded tables.
+     * @throws DaoException Any errors that occur when locating the shard.
+     */
+    protected ConnectionPool getShardPool(T dto) throws DaoException {
+        return pool;
+    }
+
+    /**
+     * getShardPools
+     *
+     * Pools holding the rows of a batch, used by saveAll, updateAll and
+     * deleteAll. Asks getShardPool() row by row; DAOs whose shard lookup
+     * runs a query override it to locate the whole batch at once.
+     *
+     * @param List dtos - The rows being written.
+     * @return List - The shard of every row, in the order of dtos.
+     * @throws DaoException Any errors that occur when locating the shards.
+     */
+    protected List<ConnectionPool> getShardPools(List<T> dtos) throws DaoException {
+        List<ConnectionPool> shards = new ArrayList<>(dtos.size());
+        for (T dto : dtos) {
+            shards.add(getShardPool(dto));
+        }
+        return shards;
+    }
+
+    /**
+     * findShardPool
+     *
+     * Locates the shard holding a row by asking every shard in parallel. Shards
+     * must draw their auto-increment ids from disjoint sequences for the
+     * answer to be unique.
+     *
+     * @param String table - The table to look in.
+     * @param String keyColumn - The key column to match.
+     * @param int id - The key value.
+     * @return ConnectionPool - The shard holding the row; the global pool when not sharded.
+     * @throws DaoException If no shard holds the row, or any errors that occur during the lookup.
+     */
+    protected ConnectionPool findShardPool(String table, String keyColumn, int id) throws DaoException {
+        return findShardPools(table, keyColumn, List.of(id)).get(id);
+    }
+
+    /**
+     * findShardPools
+     *
+     * Method overload findShardPool method for a batch of keys: every shard is
+     * asked once, with one "IN (...)" query per DEFAULT_BATCH_SIZE keys, instead
+     * of once per key.
+     *
+     * @param String table - The table to look in.
+     * @param String keyColumn - The key column to match.
+     * @param Collection ids - The key values; duplicates are looked up once.
+     * @return Map - The shard holding each row by key; the global pool when not sharded.
+     * @throws DaoException If no shard holds one of the rows, or any errors that occur during the lookup.
+     */
+    protected Map<Integer, ConnectionPool> findShardPools(String table, String keyColumn, Collection<Integer> ids) throws DaoException {
+        List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, ConnectionPool> owners = new HashMap<>();
+        if (!registry.isSharded()) {
+            for (Integer id : idList) {
+                owners.put(id, pool);
+            }
+            return owners;
+        }
+
+        String query = "SELECT " + keyColumn + " FROM " + table + " WHERE " + keyColumn;
+        List<Map.Entry<Integer, ConnectionPool>> found = fanOut(shard -> {
+            List<Map.Entry<Integer, ConnectionPool>> rows = new ArrayList<>();
+            try (Connection conn = shard.getReadConnection()) {
+                for (int start = 0; start < idList.size(); start += DEFAULT_BATCH_SIZE) {
+                    Object[] params = padIds(idList.subList(start, Math.min(start + DEFAULT_BATCH_SIZE, idList.size())));
+                    try (PreparedStatement stmt = conn.prepareStatement(query + inList(params.length))) {
+                        for (int i = 0; i < params.length; i++) {
+                            stmt.setObject(i + 1, params[i]);
+                        }
+                        try (ResultSet result = stmt.executeQuery()) {
+                            while (result.next()) {
+                                rows.add(Map.entry(result.getInt(1), shard));
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException se) {
+                throw new DaoException(se);
+            }
+            return rows;
+        });
+
+        for (Map.Entry<Integer, ConnectionPool> owner : found) {
+            owners.putIfAbsent(owner.getKey(), owner.getValue());
+        }
+        for (Integer id : idList) {
+            if (!owners.containsKey(id)) {
+                throw new DaoException("No entry found in " + table + " for " + keyColumn + ": " + id);
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * requireSameShard
+     *
+     * Rejects updates that would move a row to another facility shard, which
+     * would take a copy and delete across databases.
+     *
+     * @param ConnectionPool current - The shard the row is on.
+     * @param ConnectionPool updated - The shard the updated row belongs on.
+     * @throws DaoException If the shards differ.
+     */
+    protected void requireSameShard(ConnectionPool current, ConnectionPool updated) throws DaoException {
+        if (current != updated) {
+            throw new DaoException("Moving a row of " + getTableName() + " to another facility shard is not supported");
+        }
+    }
+
+    /**
+     * checkUpdates
+     *
+     * Validates updates before anything is written, for update and
+     * updateAll. Sharded DAOs use it to reject moves to another shard.
+     *
+     * @param List dtos - The rows being updated.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param List shards - The shard each row is on, in the order of dtos.
+     * @throws DaoException If one of the updates is not allowed.
+     */
+    protected void checkUpdates(List<T> dtos, List<String[]> params, List<ConnectionPool> shards) throws DaoException {
+    }
+
+    /**
+     * fanOut
+     *
+     * Runs a query against every shard in parallel, one virtual thread per
+     * shard, and concatenates the results in shard order. The first failure
+     * cancels the remaining shards.
+     *
+     * @param ShardQuery query - The query to run on each shard.
+     * @return List of the merged results.
+     * @throws DaoException Any errors that occur on any of the shards.
+     */
+    protected <R> List<R> fanOut(ShardQuery<R> query) throws DaoException {
+        List<ConnectionPool> shards = registry.getShards();
+        if (shards.size() == 1) {
+            return query.run(shards.getFirst());
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<R>>> results = new ArrayList<>(shards.size());
+            for (ConnectionPool shard : shards) {
+                results.add(executor.submit(() -> query.run(shard)));
+            }
+
+            List<R> merged = new ArrayList<>();
+            try {
+                for (Future<List<R>> result : results) {
+                    merged.addAll(result.get());
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new DaoException("Shard query failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new DaoException("Interrupted while querying the facility shards", e);
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * ShardQuery
+     *
+     * A query run against a single shard by fanOut().
+     */
+    @FunctionalInterface
+    protected interface ShardQuery<R> {
+        List<R> run(ConnectionPool shard) throws DaoException;
+    }
 
     /**
      * createDtoInstance
      *
-     * Internal factory method for creating Dto instances of Type T.
+     * Internal factory method for creating Dto instances of Type T, called once
+     * per row. Uses the factory given to the constructor, so no reflection
+     * happens per row.
      *
      * @return the newly instantiated Dto instance.
      * @throws DaoException Any errors that occur when instantiating the DTO instance.
      */
     protected T createDtoInstance() throws DaoException {
         try {
-            return dtoClass.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
+            return dtoFactory.get();
+        } catch (RuntimeException e) {
             throw new DaoException("Unable to create DTO instance: " + e.getMessage(), e);
         }
     }
@@ -130,73 +438,425 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
      * @throws DaoException Any errors that occur when retrieving the DTO instance.
      */
     public List<T> getAll() throws DaoException {
-        List<T> all = getMultipleRows(null, null);
+        List<T> all = getMultipleRows(null, null, Priority.BULK);
         if (all == null || all.isEmpty()) {
             throw new DaoException("No entry found");
         }
         return all;
     }
 
+    /**
+     * getAll
+     *
+     * Retrieve the rows with the given primary keys in one "IN (...)" query per
+     * DEFAULT_BATCH_SIZE ids instead of one get() per id. When there are several
+     * chunks, up to MAX_PARALLEL_QUERIES of them run at once, each on its own
+     * pool connection. On a sharded table every shard is asked for every id.
+     *
+     * @param Collection ids - The primary key values; duplicates are looked up once.
+     * @return Map of the DTOs by primary key, in the order of ids. Ids without a row are left out.
+     * @throws DaoException Any errors that occur when retrieving the DTO instances.
+     */
+    @Override
+    public Map<Integer, T> getAll(Collection<Integer> ids) throws DaoException {
+        List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, T> byId = new LinkedHashMap<>();
+        if (idList.isEmpty()) {
+            return byId;
+        }
+
+        List<T> rows = !isSharded() || !registry.isSharded()
+                ? getRowsByIds(pool, idList)
+                : fanOut(shard -> getRowsByIds(shard, idList));
+
+        Map<Integer, T> found = new HashMap<>();
+        for (T dto : rows) {
+            found.put(dto.getId(), dto);
+        }
+        for (Integer id : idList) {
+            T dto = found.get(id);
+            if (dto != null) {
+                byId.put(id, dto);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * getRowsByIds
+     *
+     * Runs the chunked IN queries of getAll(ids) against a single pool. The
+     * chunks are split round-robin over up to MAX_PARALLEL_QUERIES virtual
+     * threads. IN lists are padded like those of find(), so only a handful
+     * of statements reach the statement cache. Replica routing is decided
+     * on the calling thread, so a caller that just wrote or is pinned to
+     * the primary reads every chunk from the primary.
+     *
+     * @param ConnectionPool source - The pool to read from.
+     * @param List ids - Distinct primary key values.
+     * @return List of the DTOs found, in no particular order.
+     * @throws DaoException Any errors that occur when retrieving the DTO instances.
+     */
+    private List<T> getRowsByIds(ConnectionPool source, List<Integer> ids) throws DaoException {
+        String allRowsQuery = Objects.requireNonNull(getAllRowsQuery(), "Query not found for getAllRowsQuery() for class, " + this.getClass().getName());
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += DEFAULT_BATCH_SIZE) {
+            chunks.add(ids.subList(start, Math.min(start + DEFAULT_BATCH_SIZE, ids.size())));
+        }
+        if (chunks.size() == 1) {
+            Object[] params = padIds(ids);
+            return getMultipleRows(source, allRowsQuery + " WHERE " + getPrimaryKey() + inList(params.length), Priority.NORMAL, params);
+        }
+
+        boolean fromPrimary = source.isReadPinnedToPrimary(); // routing state is per thread, the strands do not inherit it
+
+        int strands = Math.min(MAX_PARALLEL_QUERIES, chunks.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<T>>> results = new ArrayList<>(strands);
+            for (int strand = 0; strand < strands; strand++) {
+                int first = strand;
+                results.add(executor.submit(() -> {
+                    List<T> rows = new ArrayList<>();
+                    for (int i = first; i < chunks.size(); i += strands) {
+                        Object[] params = padIds(chunks.get(i));
+                        rows.addAll(getMultipleRows(source, fromPrimary, allRowsQuery + " WHERE " + getPrimaryKey() + inList(params.length), Priority.NORMAL, params));
+                    }
+                    return rows;
+                }));
+            }
+
+            List<T> merged = new ArrayList<>(ids.size());
+            try {
+                for (Future<List<T>> result : results) {
+                    merged.addAll(result.get());
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new DaoException("Multi-get failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new DaoException("Interrupted while querying " + getTableName() + " by ids", e);
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * padIds
+     *
+     * @param List ids - The ids of one IN list.
+     * @return Object[] - The ids padded to Criteria.getPaddedSize() by repeating the last one.
+     */
+    private static Object[] padIds(List<Integer> ids) {
+        Object[] params = new Object[Criteria.getPaddedSize(ids.size())];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = ids.get(Math.min(i, ids.size() - 1));
+        }
+        return params;
+    }
+
+    /**
+     * streamAll
+     *
+     * Method overload streamAll method with row-by-row streaming.
+     *
+     * @return Stream of DTOs for all the rows in the table; close it to release the connection.
+     * @throws DaoException Any errors that occur when opening the result set.
+     */
+    @Override
+    public Stream<T> streamAll() throws DaoException {
+        return streamAll(STREAMING_FETCH_SIZE);
+    }
+
+    /**
+     * streamAll
+     *
+     * Retrieve all the rows for this table as a lazy Stream. Rows are read from
+     * a forward-only result set and converted one at a time, so the table is
+     * never held in memory. The connection (BULK lane) stays borrowed until the
+     * stream is closed, so use it in a try-with-resources block. On a sharded
+     * table the shards are read one after another, in shard order.
+     *
+     * The fetch size is passed to the driver: STREAMING_FETCH_SIZE makes
+     * Connector/J stream row by row; a positive size fetches that many rows per
+     * round trip through a server-side cursor, which needs useCursorFetch (the
+     * REPORTING driver profile) or the driver buffers the whole result.
+     *
+     * @param int fetchSize - STREAMING_FETCH_SIZE or the rows per round trip.
+     * @return Stream of DTOs for all the rows in the table; close it to release the connection.
+     * @throws DaoException Any errors that occur when opening the result set.
+     * @throws UncheckedDaoException From the stream, for errors while reading rows.
+     */
+    @Override
+    public Stream<T> streamAll(int fetchSize) throws DaoException {
+        if (fetchSize < 1 && fetchSize != STREAMING_FETCH_SIZE) {
+            throw new IllegalArgumentException("Fetch size must be positive or STREAMING_FETCH_SIZE: " + fetchSize);
+        }
+        String query = Objects.requireNonNull(getAllRowsQuery(), "Query not found for getAllRowsQuery() for class, " + this.getClass().getName());
+        List<ConnectionPool> sources = isSharded() ? registry.getShards() : List.of(pool);
+
+        RowCursor cursor = new RowCursor(sources, query, fetchSize);
+        cursor.open(); // fail here rather than on the first read
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
     /**
      * getMultipleRows
      *
      * General purpose method to retrieve rows from the database and convert them
-     * into Data Transfer Objects (DTOs).
+     * into Data Transfer Objects (DTOs). Served by a read replica when the pool
+     * has replicas.
      *
      * @return List of the DTOs.
      * @throws DaoException Any errors that occur when retrieving the DTO instance.
      */
     protected List<T> getMultipleRows(String field, Object value) throws DaoException {
-        List<T> all = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet result = null;
+        return getMultipleRows(field, value, Priority.NORMAL);
+    }
 
-        try {
-            conn = pool.getConnection();
-            String allRowsQuery = Objects.requireNonNull(getAllRowsQuery(), "Query not found for getAllRowsQuery() for class, " + this.getClass().getName());
-            if (field != null) {
-                allRowsQuery = allRowsQuery + " WHERE " + field + " = ?";
+    /**
+     * getMultipleRows
+     *
+     * Method overload getMultipleRows method borrowing the connection in the given
+     * pool lane; full table reads use the BULK lane.
+     *
+     * @param String field - Database column name to filter on, null for all rows.
+     * @param Object value - Value for the filter.
+     * @param Priority priority - The pool lane to borrow in.
+     * @return List of the DTOs.
+     * @throws DaoException Any errors that occur when retrieving the DTO instance.
+     */
+    protected List<T> getMultipleRows(String field, Object value, Priority priority) throws DaoException {
+        Criteria criteria = new Criteria();
+        if (field != null) {
+            criteria.eq(field, value);
+        }
+        return find(criteria, priority);
+    }
+
+    /**
+     * find
+     *
+     * Retrieve the rows matching the criteria.
+     *
+     * @param Criteria criteria - Predicates, orderings and limit of the query.
+     * @return List of the DTOs.
+     * @throws DaoException If the criteria use a column outside getColumns(), or any errors that occur when retrieving the DTO instances.
+     */
+    @Override
+    public List<T> find(Criteria criteria) throws DaoException {
+        return find(criteria, Priority.NORMAL);
+    }
+
+    /**
+     * find
+     *
+     * Method overload find method borrowing the connection in the given pool
+     * lane. On a sharded table the query goes to one shard when it has an
+     * equality predicate on the shard column; otherwise every shard runs it
+     * and the rows are merged in primary key order, so only the primary key
+     * can be ordered by.
+     *
+     * @param Criteria criteria - Predicates, orderings and limit of the query.
+     * @param Priority priority - The pool lane to borrow in.
+     * @return List of the DTOs.
+     * @throws DaoException If the criteria use a column outside getColumns(), or any errors that occur when retrieving the DTO instances.
+     */
+    protected List<T> find(Criteria criteria, Priority priority) throws DaoException {
+        String query = getCriteriaQuery(criteria);
+        Object[] params = getCriteriaParams(criteria);
+
+        if (!isSharded() || !registry.isSharded()) {
+            return getMultipleRows(pool, query, priority, params);
+        }
+        for (Criteria.Predicate predicate : criteria.getPredicates()) {
+            if (predicate.operator() == Criteria.Operator.EQ && predicate.column().equals(getShardColumn())
+                    && predicate.values().getFirst() instanceof Number facilityId) {
+                return getMultipleRows(registry.getPool(facilityId.intValue()), query, priority, params);
             }
+        }
 
-            stmt = conn.prepareStatement(allRowsQuery);
-            if (field != null) {
-                stmt.setObject(1, value);
+        SortOrder direction = SortOrder.ASC;
+        for (Criteria.Order order : criteria.getOrders()) {
+            if (!order.column().equals(getPrimaryKey())) {
+                throw new DaoException("Ordering " + getTableName() + " across shards is only supported by " + getPrimaryKey());
             }
+            direction = order.direction();
+        }
+
+        List<T> all = fanOut(shard -> getMultipleRows(shard, query, priority, params));
+        Comparator<T> byId = Comparator.comparingInt(BaseDto::getId);
+        all.sort(direction == SortOrder.ASC ? byId : byId.reversed());
+        Integer limit = criteria.getLimit();
+        return limit != null && all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    /**
+     * getCriteriaQuery
+     *
+     * Returns the SQL for the shape of the criteria, building and caching it
+     * the first time the shape is seen.
+     *
+     * @param Criteria criteria - The query.
+     * @return String - The SELECT statement.
+     * @throws DaoException If the criteria use a column outside getColumns().
+     */
+    private String getCriteriaQuery(Criteria criteria) throws DaoException {
+        Criteria.Shape shape = criteria.getShape();
+        String query = queryCache.get(shape);
+        if (query != null) {
+            return query;
+        }
 
-            result = stmt.executeQuery();
-            while (result.next()) {
-                T dto = createDtoInstance();
-                all.add(dto);
-                convertRStoDto(result, dto);
+        Set<String> columns = getColumns();
+        StringBuilder sql = new StringBuilder(Objects.requireNonNull(getAllRowsQuery(), "Query not found for getAllRowsQuery() for class, " + this.getClass().getName()));
+        String separator = " WHERE ";
+        for (Criteria.PredicateShape predicate : shape.predicates()) {
+            sql.append(separator).append(requireColumn(columns, predicate.column())).append(' ').append(predicate.operator().getSql());
+            switch (predicate.operator()) {
+                case BETWEEN -> sql.append(" ? AND ?");
+                case IN -> sql.append(" (").append(String.join(", ", Collections.nCopies(predicate.arity(), "?"))).append(')');
+                default -> sql.append(" ?");
             }
-        } catch (SQLException se) {
-            throw new DaoException(se);
-        } finally {
-            if (result != null) {
-                try {
-                    result.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing ResultSet: ", se.getMessage());
-                }
+            separator = " AND ";
+        }
+        separator = " ORDER BY ";
+        for (Criteria.Order order : shape.orders()) {
+            sql.append(separator).append(requireColumn(columns, order.column())).append(' ').append(order.direction());
+            separator = ", ";
+        }
+        if (shape.limited()) {
+            sql.append(" LIMIT ?");
+        }
+
+        query = sql.toString();
+        if (queryCache.size() < MAX_CACHED_QUERIES) {
+            queryCache.put(shape, query);
+        }
+        return query;
+    }
+
+    /**
+     * getCriteriaParams
+     *
+     * @param Criteria criteria - The query.
+     * @return Object[] - The values to bind, IN lists padded to their shape by repeating the last value.
+     */
+    private static Object[] getCriteriaParams(Criteria criteria) {
+        List<Object> params = new ArrayList<>();
+        for (Criteria.Predicate predicate : criteria.getPredicates()) {
+            params.addAll(predicate.values());
+            for (int i = predicate.values().size(); i < Criteria.getArity(predicate); i++) {
+                params.add(predicate.values().getLast());
             }
+        }
+        if (criteria.getLimit() != null) {
+            params.add(criteria.getLimit());
+        }
+        return params.toArray();
+    }
 
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
+    private String requireColumn(Set<String> columns, String column) throws DaoException {
+        if (!columns.contains(column)) {
+            throw new DaoException("Unknown column for " + getTableName() + ": " + column);
+        }
+        return column;
+    }
+
+    /**
+     * getMultipleRows
+     *
+     * Runs the row query against a single pool.
+     *
+     * @param ConnectionPool source - The pool to read from.
+     * @param String query - The SELECT query.
+     * @param Priority priority - The pool lane to borrow in.
+     * @param Object... params - Values for the query parameters, in order.
+     * @return List of the DTOs.
+     * @throws DaoException Any errors that occur when retrieving the DTO instance.
+     */
+    private List<T> getMultipleRows(ConnectionPool source, String query, Priority priority, Object... params) throws DaoException {
+        return getMultipleRows(source, false, query, priority, params);
+    }
+
+    /**
+     * getMultipleRows
+     *
+     * Method overload getMultipleRows method that can bypass the replicas, for
+     * reads run on behalf of a thread that is pinned to the primary.
+     *
+     * @param ConnectionPool source - The pool to read from.
+     * @param boolean fromPrimary - True to read from the primary even if replicas are attached.
+     * @param String query - The SELECT query.
+     * @param Priority priority - The pool lane to borrow in.
+     * @param Object... params - Values for the query parameters, in order.
+     * @return List of the DTOs.
+     * @throws DaoException Any errors that occur when retrieving the DTO instance.
+     */
+    private List<T> getMultipleRows(ConnectionPool source, boolean fromPrimary, String query, Priority priority, Object... params) throws DaoException {
+        List<T> all = new ArrayList<>();
+
+        try (Connection conn = fromPrimary ? source.getConnection(priority) : source.getReadConnection(priority);
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
             }
 
-            if (conn != null) {
-                pool.releaseConnection(conn);
+            try (ResultSet result = stmt.executeQuery()) {
+                while (result.next()) {
+                    T dto = createDtoInstance();
+                    all.add(dto);
+                    convertRStoDto(result, dto);
+                }
             }
+        } catch (SQLException se) {
+            throw new DaoException(se);
         }
 
         return all;
     }
 
+    /**
+     * page
+     *
+     * Retrieve one page of rows in primary key order using keyset (seek)
+     * pagination: the page starts right after the last key of the previous
+     * page rather than at an OFFSET, so every page costs an index seek plus
+     * limit rows no matter how deep it is. On a sharded table each shard
+     * returns its first limit + 1 rows and the pages are merged by key.
+     *
+     * @param Integer afterId - The continuation token of the previous page, null for the first page.
+     * @param int limit - The maximum number of rows on the page.
+     * @param SortOrder order - Ascending or descending primary key order.
+     * @return Page of the DTOs, with the token of the next page.
+     * @throws DaoException Any errors that occur when retrieving the DTO instances.
+     */
+    @Override
+    public Page<T> page(Integer afterId, int limit, SortOrder order) throws DaoException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1: " + limit);
+        }
+        String key = getPrimaryKey();
+
+        // One row more than the page tells whether there is a next page
+        Criteria criteria = new Criteria().orderBy(key, order).limit(limit + 1);
+        if (afterId != null) {
+            if (order == SortOrder.ASC) {
+                criteria.gt(key, afterId);
+            } else {
+                criteria.lt(key, afterId);
+            }
+        }
+        List<T> rows = find(criteria);
+
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> pageRows = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(pageRows, pageRows.getLast().getId());
+    }
+
     /**
      * save
      *
@@ -207,14 +867,8 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
      */
     @Override
     public void save(T dto) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet generatedKeys = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getInsertQuery(), Statement.RETURN_GENERATED_KEYS);
-
+        try (Connection conn = getShardPool(dto).getWriteConnection(getWritePriority());
+             PreparedStatement stmt = conn.prepareStatement(getInsertQuery(), Statement.RETURN_GENERATED_KEYS)) {
             prepareInsert(stmt, dto);
 
             int rows = stmt.executeUpdate();
@@ -223,33 +877,106 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
             }
 
             // Acquire the generated id for the newly inserted item
-            generatedKeys = stmt.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                setGeneratedId(generatedKeys, dto);
-            } else {
-                throw new DaoException("Insert succeeded, but no ID returned.");
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    setGeneratedId(generatedKeys.getInt(1), dto);
+                } else {
+                    throw new DaoException("Insert succeeded, but no ID returned.");
+                }
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (generatedKeys != null) {
-                try {
-                    generatedKeys.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing generated key: ", se.getMessage());
-                }
-            }
+        }
+    }
 
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
+    /**
+     * saveAll
+     *
+     * Method overload saveAll method with the default batch size.
+     *
+     * @param List dtos - DTOs that contain the values for the new rows.
+     * @throws DaoException Any errors that occur when inserting the DTOs into the database.
+     */
+    @Override
+    public void saveAll(List<T> dtos) throws DaoException {
+        saveAll(dtos, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * saveAll
+     *
+     * INSERT the DTOs with JDBC batches of batchSize rows, all in one transaction
+     * (one per facility shard when sharded). The generated ids are buffered and
+     * set on the DTOs once their transaction has committed; the DTOs of a rolled
+     * back transaction keep their previous ids.
+     *
+     * @param List dtos - DTOs that contain the values for the new rows.
+     * @param int batchSize - Rows sent to the database per round trip.
+     * @throws BatchException If rows were rejected; the transaction is rolled back.
+     * @throws DaoException Any other errors that occur when inserting the DTOs into the database.
+     */
+    @Override
+    public void saveAll(List<T> dtos, int batchSize) throws DaoException {
+        requireBatchSize(batchSize);
+
+        List<GeneratedKeys> generated = new ArrayList<>();
+        try {
+            executeInTransactions(groupByShard(getShardPools(dtos)), "Insert", (conn, indexes) -> {
+                try (PreparedStatement stmt = conn.prepareStatement(getInsertQuery(), Statement.RETURN_GENERATED_KEYS)) {
+                    for (int start = 0; start < indexes.size(); start += batchSize) {
+                        List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+                        for (int index : chunk) {
+                            prepareInsert(stmt, dtos.get(index));
+                            stmt.addBatch();
+                        }
+                        executeBatch(stmt, chunk, "Insert");
+
+                        // Keep the generated ids, in the order the rows were added, until the commit
+                        int[] keys = new int[chunk.size()];
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            for (int i = 0; i < keys.length; i++) {
+                                if (!generatedKeys.next()) {
+                                    throw new DaoException("Batch insert succeeded, but fewer IDs than rows were returned.");
+                                }
+                                keys[i] = generatedKeys.getInt(1);
+                            }
+                        }
+                        generated.add(new GeneratedKeys(chunk, keys));
+                    }
                 }
+            });
+        } catch (BatchException be) {
+            applyGeneratedIds(dtos, generated, be.getCommittedIndexes());
+            throw be;
+        }
+        applyGeneratedIds(dtos, generated, null);
+    }
+
+    /**
+     * applyGeneratedIds
+     *
+     * Sets the buffered generated ids on the DTOs of the committed rows.
+     *
+     * @param List dtos - The DTOs passed to saveAll.
+     * @param List generated - The generated ids of every executed chunk.
+     * @param int[] committed - The list indexes of the committed rows, null if all were committed.
+     */
+    private void applyGeneratedIds(List<T> dtos, List<GeneratedKeys> generated, int[] committed) {
+        Set<Integer> committedIndexes = null;
+        if (committed != null) {
+            committedIndexes = new HashSet<>();
+            for (int index : committed) {
+                committedIndexes.add(index);
             }
+        }
 
-            if (conn != null) {
-                pool.releaseConnection(conn);
+        for (GeneratedKeys chunk : generated) {
+            // A chunk belongs to one transaction, committed or rolled back as a whole
+            if (committedIndexes != null && !committedIndexes.contains(chunk.indexes().get(0))) {
+                continue;
+            }
+            for (int i = 0; i < chunk.keys().length; i++) {
+                setGeneratedId(chunk.keys()[i], dtos.get(chunk.indexes().get(i)));
             }
         }
     }
@@ -266,13 +993,11 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
      */
     @Override
     public void update(T dto, String[] params) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getUpdateQuery());
+        ConnectionPool shard = getShardPool(dto);
+        checkUpdates(List.of(dto), Collections.singletonList(params), List.of(shard));
 
+        try (Connection conn = shard.getWriteConnection(getWritePriority());
+             PreparedStatement stmt = conn.prepareStatement(getUpdateQuery())) {
             prepareUpdate(stmt, dto, params);
 
             int rowsUpdated = stmt.executeUpdate();
@@ -283,18 +1008,60 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
             applyParamsToDto(dto, params);
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
+        }
+    }
+
+    /**
+     * updateAll
+     *
+     * Method overload updateAll method with the default batch size.
+     *
+     * @param List dtos - Pull the primary keys out of the DTOs.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @throws DaoException Any errors that occur when updating the DTOs in the database.
+     */
+    @Override
+    public void updateAll(List<T> dtos, List<String[]> params) throws DaoException {
+        updateAll(dtos, params, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * updateAll
+     *
+     * UPDATE the rows of the DTOs with JDBC batches of batchSize rows, all in
+     * one transaction (one per facility shard when sharded). The DTOs are only
+     * changed once every row has been updated.
+     *
+     * @param List dtos - Pull the primary keys out of the DTOs.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param int batchSize - Rows sent to the database per round trip.
+     * @throws BatchException If a row is missing or rejected; the transaction is rolled back.
+     * @throws DaoException Any other errors that occur when updating the DTOs in the database.
+     */
+    @Override
+    public void updateAll(List<T> dtos, List<String[]> params, int batchSize) throws DaoException {
+        requireBatchSize(batchSize);
+        if (dtos.size() != params.size()) {
+            throw new IllegalArgumentException("Expected one params array per DTO: " + dtos.size() + " DTOs, " + params.size() + " params");
+        }
+        List<ConnectionPool> shards = getShardPools(dtos);
+        checkUpdates(dtos, params, shards);
+
+        executeInTransactions(groupByShard(shards), "Update", (conn, indexes) -> {
+            try (PreparedStatement stmt = conn.prepareStatement(getUpdateQuery())) {
+                for (int start = 0; start < indexes.size(); start += batchSize) {
+                    List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+                    for (int index : chunk) {
+                        prepareUpdate(stmt, dtos.get(index), params.get(index));
+                        stmt.addBatch();
+                    }
+                    requireRowsFound(executeBatch(stmt, chunk, "Update"), chunk, "Update");
                 }
             }
+        });
 
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
+        for (int i = 0; i < dtos.size(); i++) {
+            applyParamsToDto(dtos.get(i), params.get(i));
         }
     }
 
@@ -308,13 +1075,8 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
      */
     @Override
     public void delete(T dto) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getDeleteQuery());
-
+        try (Connection conn = getShardPool(dto).getWriteConnection(getWritePriority());
+             PreparedStatement stmt = conn.prepareStatement(getDeleteQuery())) {
             prepareDelete(stmt, dto);
 
             int rowsDeleted = stmt.executeUpdate();
@@ -323,18 +1085,374 @@ public abstract class BaseDaoImpl<T extends BaseDto> implements BaseDao<T> {
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
+        }
+    }
+
+    /**
+     * deleteAll
+     *
+     * Method overload deleteAll method with the default batch size.
+     *
+     * @param List dtos - Pull the primary keys out of the DTOs.
+     * @throws DaoException Any errors that occur when deleting the DTOs from the database.
+     */
+    @Override
+    public void deleteAll(List<T> dtos) throws DaoException {
+        deleteAll(dtos, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * deleteAll
+     *
+     * DELETE the rows of the DTOs with JDBC batches of batchSize rows, all in
+     * one transaction (one per facility shard when sharded).
+     *
+     * @param List dtos - Pull the primary keys out of the DTOs.
+     * @param int batchSize - Rows sent to the database per round trip.
+     * @throws BatchException If a row is missing or rejected; the transaction is rolled back.
+     * @throws DaoException Any other errors that occur when deleting the DTOs from the database.
+     */
+    @Override
+    public void deleteAll(List<T> dtos, int batchSize) throws DaoException {
+        requireBatchSize(batchSize);
+
+        executeInTransactions(groupByShard(getShardPools(dtos)), "Delete", (conn, indexes) -> {
+            try (PreparedStatement stmt = conn.prepareStatement(getDeleteQuery())) {
+                for (int start = 0; start < indexes.size(); start += batchSize) {
+                    List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+                    for (int index : chunk) {
+                        prepareDelete(stmt, dtos.get(index));
+                        stmt.addBatch();
+                    }
+                    requireRowsFound(executeBatch(stmt, chunk, "Delete"), chunk, "Delete");
+                }
+            }
+        });
+    }
+
+    /**
+     * deleteAllById
+     *
+     * Method overload deleteAllById method with the default batch size.
+     *
+     * @param Collection ids - Primary keys of the rows to delete.
+     * @return int - The number of rows deleted.
+     * @throws DaoException Any errors that occur when deleting the rows from the database.
+     */
+    @Override
+    public int deleteAllById(Collection<Integer> ids) throws DaoException {
+        return deleteAllById(ids, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * deleteAllById
+     *
+     * DELETE the rows with the given primary keys using one
+     * "WHERE id IN (...)" statement per batchSize ids, all in one transaction.
+     * Ids without a row are skipped, so purges can be re-run. Sharded tables
+     * run the statements on every shard, in one transaction per shard.
+     *
+     * @param Collection ids - Primary keys of the rows to delete.
+     * @param int batchSize - Ids per IN list.
+     * @return int - The number of rows deleted.
+     * @throws BatchException If a statement fails; the transaction is rolled back.
+     * @throws DaoException Any other errors that occur when deleting the rows from the database.
+     */
+    @Override
+    public int deleteAllById(Collection<Integer> ids, int batchSize) throws DaoException {
+        requireBatchSize(batchSize);
+        List<Integer> idList = List.copyOf(ids);
+        if (idList.isEmpty()) {
+            return 0;
+        }
+
+        // The ids say nothing about their shard, so every shard gets every id
+        List<Integer> indexes = new ArrayList<>(idList.size());
+        for (int i = 0; i < idList.size(); i++) {
+            indexes.add(i);
+        }
+        Map<ConnectionPool, List<Integer>> groups = new LinkedHashMap<>();
+        for (ConnectionPool shard : isSharded() ? registry.getShards() : List.of(pool)) {
+            groups.put(shard, indexes);
+        }
+
+        int[] deleted = {0};
+        executeInTransactions(groups, "Delete", (conn, group) -> {
+            int fullSize = Math.min(batchSize, group.size());
+            String fullQuery = getDeleteByIdsQuery(fullSize);
+            for (int start = 0; start < group.size(); start += batchSize) {
+                List<Integer> chunk = group.subList(start, Math.min(start + batchSize, group.size()));
+                // Full chunks share one cached statement; only the last one needs its own SQL
+                String query = chunk.size() == fullSize ? fullQuery : getDeleteByIdsQuery(chunk.size());
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, idList.get(chunk.get(i)));
+                    }
+                    deleted[0] += stmt.executeUpdate();
+                }
+            }
+        });
+        return deleted[0];
+    }
+
+    /**
+     * getDeleteByIdsQuery
+     *
+     * @param int count - Number of ids in the IN list.
+     * @return String - DELETE statement matching the primary key against count placeholders.
+     */
+    private String getDeleteByIdsQuery(int count) {
+        return "DELETE FROM " + getTableName() + " WHERE " + getPrimaryKey() + inList(count);
+    }
+
+    private static String inList(int count) {
+        return " IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    /**
+     * groupByShard
+     *
+     * @param List shards - The shard of every row of a batch operation, from getShardPools().
+     * @return Map - The list indexes of the rows, grouped by the shard that holds them.
+     */
+    private static Map<ConnectionPool, List<Integer>> groupByShard(List<ConnectionPool> shards) {
+        Map<ConnectionPool, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            groups.computeIfAbsent(shards.get(i), shard -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    /**
+     * executeInTransactions
+     *
+     * Runs a batch operation shard by shard, each on one connection of the BULK
+     * lane inside one transaction. The first failure rolls back its transaction
+     * and stops; shards already committed are reported in the BatchException.
+     *
+     * @param Map groups - The list indexes of the rows per shard.
+     * @param String operation - The operation name for error messages.
+     * @param BatchWork work - Writes the rows of one shard.
+     * @throws BatchException If any shard's transaction failed.
+     */
+    private void executeInTransactions(Map<ConnectionPool, List<Integer>> groups, String operation, BatchWork work) throws BatchException {
+        List<Integer> committed = new ArrayList<>();
+
+        for (Map.Entry<ConnectionPool, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            try (Connection conn = group.getKey().getWriteConnection(Priority.BULK)) {
+                // The pool restores auto-commit when the connection is returned
+                conn.setAutoCommit(false);
                 try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
+                    work.run(conn, indexes);
+                    conn.commit();
+                } catch (SQLException | DaoException e) {
+                    rollback(conn);
+                    throw e;
+                }
+                committed.addAll(indexes);
+            } catch (BatchException be) {
+                throw new BatchException(be.getMessage(), be.getFailedIndexes(), toArray(committed), be.getCause());
+            } catch (SQLException | DaoException e) {
+                throw new BatchException(operation + " batch on " + getTableName() + " failed: " + e.getMessage(),
+                        toArray(indexes), toArray(committed), e);
+            }
+        }
+    }
+
+    /**
+     * executeBatch
+     *
+     * Executes the statement's batch, translating a BatchUpdateException into
+     * the list indexes of the rejected rows.
+     *
+     * @param PreparedStatement stmt - The statement holding the batch.
+     * @param List chunk - The list indexes of the batched rows, in batch order.
+     * @param String operation - The operation name for error messages.
+     * @return int[] - The update count of every row.
+     * @throws BatchException If the database rejected any of the rows.
+     * @throws SQLException Any other errors that occur when executing the batch.
+     */
+    private int[] executeBatch(PreparedStatement stmt, List<Integer> chunk, String operation) throws SQLException, BatchException {
+        try {
+            return stmt.executeBatch();
+        } catch (BatchUpdateException bue) {
+            int[] counts = bue.getUpdateCounts();
+            List<Integer> failed = new ArrayList<>();
+            if (counts != null && counts.length == chunk.size()) {
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == Statement.EXECUTE_FAILED) {
+                        failed.add(chunk.get(i));
+                    }
+                }
+            } else if (counts != null && counts.length < chunk.size()) {
+                failed.add(chunk.get(counts.length)); // the driver stopped at the first failure
+            }
+            if (failed.isEmpty()) {
+                failed.addAll(chunk);
+            }
+
+            throw new BatchException(operation + " batch on " + getTableName() + " failed for " + failed.size()
+                    + " row(s), the transaction was rolled back: " + bue.getMessage(), toArray(failed), new int[0], bue);
+        }
+    }
+
+    /**
+     * requireRowsFound
+     *
+     * @param int[] counts - The update counts of a batch.
+     * @param List chunk - The list indexes of the batched rows, in batch order.
+     * @param String operation - The operation name for error messages.
+     * @throws BatchException If any statement of the batch matched no row.
+     */
+    private void requireRowsFound(int[] counts, List<Integer> chunk, String operation) throws BatchException {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length && i < chunk.size(); i++) {
+            if (counts[i] == 0) {
+                missing.add(chunk.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new BatchException(operation + " batch on " + getTableName() + " failed: no record found for "
+                    + missing.size() + " row(s), the transaction was rolled back.", toArray(missing), new int[0], null);
+        }
+    }
+
+    private static void requireBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException se) {
+            LOGGER.warning("Rollback after a failed batch failed: " + se.getMessage());
+        }
+    }
+
+    private static int[] toArray(List<Integer> indexes) {
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * RowCursor
+     *
+     * Spliterator over the rows of one or more pools, backing streamAll. Holds
+     * at most one connection at a time and opens the next pool's result set
+     * when the current one is exhausted.
+     */
+    private final class RowCursor extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+        private final List<ConnectionPool> sources;
+        private final String query;
+        private final int fetchSize;
+        private int next;
+        private Connection conn;
+        private PreparedStatement stmt;
+        private ResultSet result;
+
+        RowCursor(List<ConnectionPool> sources, String query, int fetchSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sources = sources;
+            this.query = query;
+            this.fetchSize = fetchSize;
+        }
+
+        /**
+         * open
+         *
+         * Opens the result set of the next pool.
+         *
+         * @return boolean - False once every pool has been read.
+         * @throws DaoException Any errors that occur when running the query.
+         */
+        boolean open() throws DaoException {
+            if (next == sources.size()) {
+                return false;
+            }
+
+            try {
+                conn = sources.get(next++).getReadConnection(Priority.BULK);
+                stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                stmt.setFetchSize(fetchSize);
+                result = stmt.executeQuery();
+                return true;
+            } catch (SQLException se) {
+                close();
+                throw new DaoException(se);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                while (result != null || open()) {
+                    if (result.next()) {
+                        T dto = createDtoInstance();
+                        convertRStoDto(result, dto);
+                        action.accept(dto);
+                        return true;
+                    }
+                    close();
                 }
+                return false;
+            } catch (SQLException se) {
+                close();
+                throw new UncheckedDaoException(new DaoException(se));
+            } catch (DaoException de) {
+                close();
+                throw new UncheckedDaoException(de);
             }
+        }
 
-            if (conn != null) {
-                pool.releaseConnection(conn);
+        /**
+         * close
+         *
+         * Closes the current result set and returns its connection to the pool.
+         */
+        @Override
+        public void close() {
+            try {
+                if (result != null) {
+                    result.close();
+                }
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException se) {
+                LOGGER.warning("Error closing streaming result set: " + se.getMessage());
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.close();
+                    } catch (SQLException se) {
+                        LOGGER.warning("Error releasing streaming connection: " + se.getMessage());
+                    }
+                }
+                result = null;
+                stmt = null;
+                conn = null;
             }
         }
     }
+
+    /**
+     * GeneratedKeys
+     *
+     * @param indexes - The list indexes of a saveAll chunk, in batch order.
+     * @param keys - The ids generated for the chunk, in the same order.
+     */
+    private record GeneratedKeys(List<Integer> indexes, int[] keys) {
+    }
+
+    /**
+     * BatchWork
+     *
+     * The part of a batch operation that runs on one shard's connection.
+     */
+    @FunctionalInterface
+    private interface BatchWork {
+        void run(Connection conn, List<Integer> indexes) throws SQLException, DaoException;
+    }
 }
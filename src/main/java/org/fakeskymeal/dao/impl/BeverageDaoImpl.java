@@ -2,7 +2,11 @@ package org.fakeskymeal.dao.impl;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,8 +14,11 @@ import org.fakeskymeal.dao.BeverageDao;
 import org.fakeskymeal.dao.exception.DaoException;
 
 import org.fakeskymeal.dto.BeverageDto;
+import org.fakeskymeal.dto.BeverageDtoBinder;
+import org.fakeskymeal.dto.BeverageDtoMapper;
 
 import util.jdbc.ConnectionPool;
+import util.jdbc.DataSourceRegistry;
 
 /**
  * BeverageDaoImpl
@@ -23,10 +30,15 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
 
     String _tableName = "beverages";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "inventory_id", "name", "brand", "quantity", "weight", "delivered_date", "expiration_date", "description");
     Properties _queries;
 
     public BeverageDaoImpl(ConnectionPool pool) {
-        super(pool, BeverageDto.class);
+        this(DataSourceRegistry.single(pool));
+    }
+
+    public BeverageDaoImpl(DataSourceRegistry registry) {
+        super(registry, BeverageDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -68,6 +80,29 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
         return super.getRow(field, value);
     }
 
+    /**
+     * checkUpdates
+     *
+     * The new inventory of an update must be on the same shard. The new
+     * inventories of the whole batch are located in one lookup.
+     *
+     * @param List dtos - The rows being updated.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param List shards - The shard each row is on, in the order of dtos.
+     * @throws DaoException If an update would move a row to another shard.
+     */
+    @Override
+    protected void checkUpdates(List<BeverageDto> dtos, List<String[]> params, List<ConnectionPool> shards) throws DaoException {
+        List<Integer> inventoryIds = new ArrayList<>(params.size());
+        for (String[] values : params) {
+            inventoryIds.add(Integer.parseInt(values[0]));
+        }
+        Map<Integer, ConnectionPool> updated = findShardPools("inventory_stock", "id", inventoryIds);
+        for (int i = 0; i < dtos.size(); i++) {
+            requireSameShard(shards.get(i), updated.get(inventoryIds.get(i)));
+        }
+    }
+
     /**
      * prepareInsert
      *
@@ -80,14 +115,7 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
      */
     @Override
     protected void prepareInsert(PreparedStatement stmt, BeverageDto dto) throws SQLException {
-        stmt.setInt(1, dto.getInventoryId());
-        stmt.setString(2, dto.getName());
-        stmt.setString(3, dto.getBrand());
-        stmt.setInt(4, dto.getQuantity());
-        stmt.setFloat(5, dto.getWeight());
-        stmt.setDate(6, dto.getDeliveredDate());
-        stmt.setDate(7, dto.getExpirationDate());
-        stmt.setString(8, dto.getDescription());
+        BeverageDtoBinder.bindInsert(stmt, dto);
     }
 
     /**
@@ -103,15 +131,7 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
      */
     @Override
     protected void prepareUpdate(PreparedStatement stmt, BeverageDto dto, String[] params) throws SQLException {
-        stmt.setInt(1, Integer.parseInt(params[0])); // new inventory_id
-        stmt.setString(2, params[1]); // new name
-        stmt.setString(3, params[2]); // new brand
-        stmt.setInt(4, Integer.parseInt(params[3])); // new quantity
-        stmt.setFloat(5, Float.parseFloat(params[4])); // new weight
-        stmt.setDate(6, Date.valueOf(params[5])); // new delivery_date
-        stmt.setDate(7, Date.valueOf(params[6])); // new expiration_date
-        stmt.setString(8, params[7]); // new description
-        stmt.setInt(9, dto.getBeverageId()); // WHERE id = ?
+        BeverageDtoBinder.bindUpdate(stmt, dto, params);
     }
 
     /**
@@ -126,14 +146,7 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
      */
     @Override
     protected void applyParamsToDto(BeverageDto dto, String[] params) {
-        dto.setInventoryId(Integer.parseInt(params[0]));
-        dto.setName(params[1]);
-        dto.setBrand(params[2]);
-        dto.setQuantity(Integer.parseInt(params[3]));
-        dto.setWeight(Float.parseFloat(params[4]));
-        dto.setDeliveredDate(Date.valueOf(params[5]));
-        dto.setExpirationDate(Date.valueOf(params[6]));
-        dto.setDescription(params[7]);
+        BeverageDtoBinder.apply(dto, params);
     }
 
     /**
@@ -148,22 +161,21 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
      */
     @Override
     protected void prepareDelete(PreparedStatement stmt, BeverageDto dto) throws SQLException {
-        stmt.setInt(1, dto.getBeverageId());
+        BeverageDtoBinder.bindId(stmt, dto);
     }
 
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param BeverageDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, BeverageDto dto) throws SQLException {
-        dto.setBeverageId(keys.getInt(1));
+    protected void setGeneratedId(int id, BeverageDto dto) {
+        dto.setBeverageId(id);
     }
 
     /**
@@ -180,15 +192,7 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
     @Override
     protected void convertRStoDto(ResultSet result, BeverageDto dto) throws DaoException {
         try {
-            dto.setBeverageId(result.getInt(1));
-            dto.setInventoryId(result.getInt(2));
-            dto.setName(result.getString(3));
-            dto.setBrand(result.getString(4));
-            dto.setQuantity(result.getInt(5));
-            dto.setWeight(result.getFloat(6));
-            dto.setDeliveredDate(result.getDate(7));
-            dto.setExpirationDate(result.getDate(8));
-            dto.setDescription(result.getString(9));
+            BeverageDtoMapper.read(result, dto);
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
         }
@@ -265,4 +269,64 @@ public class BeverageDaoImpl extends BaseDaoImpl<BeverageDto> implements Beverag
     protected String getPrimaryKey() {
         return _primaryKey;
     }
+
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
+
+    /**
+     * isSharded
+     *
+     * Beverages are stored with their inventory, on its facility's shard.
+     *
+     * @return boolean - Always true.
+     */
+    @Override
+    protected boolean isSharded() {
+        return true;
+    }
+
+    /**
+     * getShardPool
+     *
+     * @param BeverageDto dto - The beverage row.
+     * @return ConnectionPool - The shard holding the beverage's inventory.
+     * @throws DaoException If the inventory does not exist, or any errors during the lookup.
+     */
+    @Override
+    protected ConnectionPool getShardPool(BeverageDto dto) throws DaoException {
+        return findShardPool("inventory_stock", "id", dto.getInventoryId());
+    }
+
+    /**
+     * getShardPools
+     *
+     * Locates the inventories of the whole batch in one lookup instead of one
+     * per row.
+     *
+     * @param List dtos - The beverage rows.
+     * @return List - The shard holding each beverage's inventory, in the order of dtos.
+     * @throws DaoException If an inventory does not exist, or any errors during the lookup.
+     */
+    @Override
+    protected List<ConnectionPool> getShardPools(List<BeverageDto> dtos) throws DaoException {
+        List<Integer> inventoryIds = new ArrayList<>(dtos.size());
+        for (BeverageDto dto : dtos) {
+            inventoryIds.add(dto.getInventoryId());
+        }
+        Map<Integer, ConnectionPool> owners = findShardPools("inventory_stock", "id", inventoryIds);
+        List<ConnectionPool> shards = new ArrayList<>(dtos.size());
+        for (Integer inventoryId : inventoryIds) {
+            shards.add(owners.get(inventoryId));
+        }
+        return shards;
+    }
 }
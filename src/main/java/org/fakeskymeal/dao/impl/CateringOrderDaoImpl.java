@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,10 +14,14 @@ import org.fakeskymeal.dao.CateringOrderDao;
 import org.fakeskymeal.dao.exception.DaoException;
 
 import org.fakeskymeal.dto.BeverageDto;
+import org.fakeskymeal.dto.BeverageDtoMapper;
 import org.fakeskymeal.dto.CateringOrderDto;
 import org.fakeskymeal.dto.MealDto;
+import org.fakeskymeal.dto.MealDtoMapper;
 
 import util.jdbc.ConnectionPool;
+import util.jdbc.DataSourceRegistry;
+import util.jdbc.Priority;
 
 /**
  * CateringOrderDaoImpl
@@ -28,10 +33,15 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
 
     String _tableName = "catering_orders";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "flight_id", "facility_id", "delivery_time");
     Properties _queries;
 
     public CateringOrderDaoImpl(ConnectionPool pool) {
-        super(pool, CateringOrderDto.class);
+        this(DataSourceRegistry.single(pool));
+    }
+
+    public CateringOrderDaoImpl(DataSourceRegistry registry) {
+        super(registry, CateringOrderDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -73,6 +83,23 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
         return super.getRow(field, value);
     }
 
+    /**
+     * checkUpdates
+     *
+     * The new facility of an update must be on the same shard.
+     *
+     * @param List dtos - The rows being updated.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param List shards - The shard each row is on, in the order of dtos.
+     * @throws DaoException If an update would move a row to another shard.
+     */
+    @Override
+    protected void checkUpdates(List<CateringOrderDto> dtos, List<String[]> params, List<ConnectionPool> shards) throws DaoException {
+        for (int i = 0; i < dtos.size(); i++) {
+            requireSameShard(shards.get(i), registry.getPool(Integer.parseInt(params.get(i)[1])));
+        }
+    }
+
     /**
      * prepareInsert
      *
@@ -144,16 +171,15 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param CateringOrderDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, CateringOrderDto dto) throws SQLException {
-        dto.setOrderId(keys.getInt(1));
+    protected void setGeneratedId(int id, CateringOrderDto dto) {
+        dto.setOrderId(id);
     }
 
 
@@ -167,54 +193,21 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public List<BeverageDto> getBeveragesForOrder(int orderId) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         List<BeverageDto> beverages = new ArrayList<>();
 
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getBeveragesByOrderIdQuery());
-
+        try (Connection conn = findOrderShard(orderId).getConnection();
+             PreparedStatement stmt = conn.prepareStatement(getBeveragesByOrderIdQuery())) {
             stmt.setInt(1, orderId);
 
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                BeverageDto beverage = new BeverageDto();
-                beverage.setBeverageId(rs.getInt(1));
-                beverage.setInventoryId(rs.getInt(2));
-                beverage.setName(rs.getString(3));
-                beverage.setBrand(rs.getString(4));
-                beverage.setQuantity(rs.getInt(5));
-                beverage.setWeight(rs.getFloat(6));
-                beverage.setDeliveredDate(rs.getDate(7));
-                beverage.setExpirationDate(rs.getDate(8));
-                beverage.setDescription(rs.getString(9));
-                beverages.add(beverage);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BeverageDto beverage = new BeverageDto();
+                    BeverageDtoMapper.read(rs, beverage);
+                    beverages.add(beverage);
+                }
             }
         } catch (SQLException se) {
             throw new DaoException("Failed to get beverages for order ID " + orderId, se);
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing ResultSet: ", se.getMessage());
-                }
-            }
-
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
 
         return beverages;
@@ -231,13 +224,8 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public void addBeverageToOrder(int orderId, int beverageId, int quantity) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getInsertBeverageToOrderQuery());
-
+        try (Connection conn = findOrderShard(orderId).getWriteConnection(Priority.CRITICAL);
+             PreparedStatement stmt = conn.prepareStatement(getInsertBeverageToOrderQuery())) {
             stmt.setInt(1, orderId);
             stmt.setInt(2, beverageId);
             stmt.setInt(3, quantity);
@@ -248,18 +236,6 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
     }
 
@@ -273,13 +249,8 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public void removeBeverageFromOrder(int orderId, int beverageId) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getDeleteBeverageFromOrderQuery());
-
+        try (Connection conn = findOrderShard(orderId).getWriteConnection(Priority.CRITICAL);
+             PreparedStatement stmt = conn.prepareStatement(getDeleteBeverageFromOrderQuery())) {
             stmt.setInt(1, orderId);
             stmt.setInt(2, beverageId);
 
@@ -289,18 +260,6 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
     }
 
@@ -314,54 +273,21 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public List<MealDto> getMealsForOrder(int orderId) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         List<MealDto> meals = new ArrayList<>();
 
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getMealsByOrderIdQuery());
-
+        try (Connection conn = findOrderShard(orderId).getConnection();
+             PreparedStatement stmt = conn.prepareStatement(getMealsByOrderIdQuery())) {
             stmt.setInt(1, orderId);
 
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                MealDto meal = new MealDto();
-                meal.setMealId(rs.getInt(1));
-                meal.setInventoryId(rs.getInt(2));
-                meal.setName(rs.getString(3));
-                meal.setMealType(rs.getString(4));
-                meal.setVegetarian(rs.getBoolean(5));
-                meal.setQuantity(rs.getInt(6));
-                meal.setWeight(rs.getFloat(7));
-                meal.setCreatedDate(rs.getDate(8));
-                meal.setDescription(rs.getString(9));
-                meals.add(meal);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    MealDto meal = new MealDto();
+                    MealDtoMapper.read(rs, meal);
+                    meals.add(meal);
+                }
             }
         } catch (SQLException se) {
             throw new DaoException("Failed to get beverages for order ID " + orderId, se);
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing ResultSet: ", se.getMessage());
-                }
-            }
-
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
 
         return meals;
@@ -378,13 +304,8 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public void addMealToOrder(int orderId, int mealId, int quantity) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getInsertMealToOrderQuery());
-
+        try (Connection conn = findOrderShard(orderId).getWriteConnection(Priority.CRITICAL);
+             PreparedStatement stmt = conn.prepareStatement(getInsertMealToOrderQuery())) {
             stmt.setInt(1, orderId);
             stmt.setInt(2, mealId);
             stmt.setInt(3, quantity);
@@ -395,18 +316,6 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
     }
 
@@ -420,13 +329,8 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public void removeMealFromOrder(int orderId, int mealId) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getDeleteMealFromOrderQuery());
-
+        try (Connection conn = findOrderShard(orderId).getWriteConnection(Priority.CRITICAL);
+             PreparedStatement stmt = conn.prepareStatement(getDeleteMealFromOrderQuery())) {
             stmt.setInt(1, orderId);
             stmt.setInt(2, mealId);
 
@@ -436,18 +340,6 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
     }
 
@@ -546,10 +438,81 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
         return _primaryKey;
     }
 
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
+
+    /**
+     * isSharded
+     *
+     * Catering orders and their order lines are split across the facility shards.
+     *
+     * @return boolean - Always true.
+     */
+    @Override
+    protected boolean isSharded() {
+        return true;
+    }
+
+    /**
+     * getShardColumn
+     *
+     * @return String - The facility id column.
+     */
+    @Override
+    protected String getShardColumn() {
+        return "facility_id";
+    }
+
+    /**
+     * getShardPool
+     *
+     * @param CateringOrderDto dto - The catering order.
+     * @return ConnectionPool - The shard of the order's facility.
+     */
+    @Override
+    protected ConnectionPool getShardPool(CateringOrderDto dto) {
+        return registry.getPool(dto.getFacilityId());
+    }
+
+    /**
+     * getWritePriority
+     *
+     * Catering order writes are time-critical and use the pool's reserved capacity.
+     *
+     * @return Priority - The CRITICAL lane.
+     */
+    @Override
+    protected Priority getWritePriority() {
+        return Priority.CRITICAL;
+    }
+
+    /**
+     * findOrderShard
+     *
+     * Order lines live on the shard of their order.
+     *
+     * @param int orderId - The catering order id.
+     * @return ConnectionPool - The shard holding the order.
+     * @throws DaoException If the order does not exist, or any errors during the lookup.
+     */
+    private ConnectionPool findOrderShard(int orderId) throws DaoException {
+        return findShardPool(getTableName(), getPrimaryKey(), orderId);
+    }
+
     /**
      * getBeveragesByOrderIdQuery
      *
-     * Returns the Beverages associated to the Catering Order
+     * Returns the Beverages associated to the Catering Order, selecting the
+     * columns in the order BeverageDtoMapper reads them
      *
      * @return String - SELECT query
      */
@@ -582,7 +545,8 @@ public class CateringOrderDaoImpl extends BaseDaoImpl<CateringOrderDto> implemen
     /**
      * getMealsByOrderIdQuery
      *
-     * Returns the Meals associated to the Catering Order
+     * Returns the Meals associated to the Catering Order, selecting the
+     * columns in the order MealDtoMapper reads them
      *
      * @return String - SELECT query
      */
@@ -3,6 +3,7 @@ package org.fakeskymeal.dao.impl;
 import java.io.IOException;
 import java.sql.*;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,10 +24,11 @@ public class FacilityDaoImpl extends BaseDaoImpl<FacilityDto> implements Facilit
 
     String _tableName = "catering_facilities";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "name", "location");
     Properties _queries;
 
     public FacilityDaoImpl(ConnectionPool pool) {
-        super(pool, FacilityDto.class);
+        super(pool, FacilityDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -136,16 +138,15 @@ public class FacilityDaoImpl extends BaseDaoImpl<FacilityDto> implements Facilit
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param FacilityDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, FacilityDto dto) throws SQLException {
-        dto.setFacilityId(keys.getInt(1));
+    protected void setGeneratedId(int id, FacilityDto dto) {
+        dto.setFacilityId(id);
     }
 
     /**
@@ -241,4 +242,16 @@ public class FacilityDaoImpl extends BaseDaoImpl<FacilityDto> implements Facilit
     protected String getPrimaryKey() {
         return _primaryKey;
     }
+
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
 }
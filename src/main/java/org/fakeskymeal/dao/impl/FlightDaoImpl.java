@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,10 +27,11 @@ public class FlightDaoImpl extends BaseDaoImpl<FlightDto> implements FlightDao {
 
     String _tableName = "flights";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "airline_company_id", "flight_number", "departure_time", "arrival_time");
     Properties _queries;
 
     public FlightDaoImpl(ConnectionPool pool) {
-        super(pool, FlightDto.class);
+        super(pool, FlightDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -145,16 +147,15 @@ public class FlightDaoImpl extends BaseDaoImpl<FlightDto> implements FlightDao {
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param FlightDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, FlightDto dto) throws SQLException {
-        dto.setFlightId(keys.getInt(1));
+    protected void setGeneratedId(int id, FlightDto dto) {
+        dto.setFlightId(id);
     }
 
     /**
@@ -168,46 +169,21 @@ public class FlightDaoImpl extends BaseDaoImpl<FlightDto> implements FlightDao {
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public List<FlightDto> getFlightsByAirlineName(String companyName) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         List<FlightDto> flights = new ArrayList<>();
 
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getFlightsByAirlineNameQuery());
-
+        try (Connection conn = pool.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(getFlightsByAirlineNameQuery())) {
             stmt.setString(1, companyName);
 
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                FlightDto flight = new FlightDto();
-                convertRStoDto(rs, flight);
-                flights.add(flight);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    FlightDto flight = new FlightDto();
+                    convertRStoDto(rs, flight);
+                    flights.add(flight);
+                }
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing ResultSet: ", se.getMessage());
-                }
-            }
-
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
 
         return flights;
@@ -309,6 +285,18 @@ public class FlightDaoImpl extends BaseDaoImpl<FlightDto> implements FlightDao {
         return _primaryKey;
     }
 
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
+
     /**
      * getFlightsByCompanyNameQuery
      *
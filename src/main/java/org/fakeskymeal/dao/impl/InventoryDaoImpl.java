@@ -5,6 +5,7 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,6 +15,7 @@ import org.fakeskymeal.dao.exception.DaoException;
 import org.fakeskymeal.dto.InventoryDto;
 
 import util.jdbc.ConnectionPool;
+import util.jdbc.DataSourceRegistry;
 
 /**
  * InventoryDaoImpl
@@ -25,10 +27,15 @@ public class InventoryDaoImpl extends BaseDaoImpl<InventoryDto> implements Inven
 
     String _tableName = "inventory_stock";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "facility_id", "name", "unit");
     Properties _queries;
 
     public InventoryDaoImpl(ConnectionPool pool) {
-        super(pool, InventoryDto.class);
+        this(DataSourceRegistry.single(pool));
+    }
+
+    public InventoryDaoImpl(DataSourceRegistry registry) {
+        super(registry, InventoryDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -70,6 +77,23 @@ public class InventoryDaoImpl extends BaseDaoImpl<InventoryDto> implements Inven
         return super.getRow(field, value);
     }
 
+    /**
+     * checkUpdates
+     *
+     * The new facility of an update must be on the same shard.
+     *
+     * @param List dtos - The rows being updated.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param List shards - The shard each row is on, in the order of dtos.
+     * @throws DaoException If an update would move a row to another shard.
+     */
+    @Override
+    protected void checkUpdates(List<InventoryDto> dtos, List<String[]> params, List<ConnectionPool> shards) throws DaoException {
+        for (int i = 0; i < dtos.size(); i++) {
+            requireSameShard(shards.get(i), registry.getPool(Integer.parseInt(params.get(i)[0])));
+        }
+    }
+
     /**
      * prepareInsert
      *
@@ -141,69 +165,43 @@ public class InventoryDaoImpl extends BaseDaoImpl<InventoryDto> implements Inven
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param InventoryDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, InventoryDto dto) throws SQLException {
-        dto.setInventoryId(keys.getInt(1));
+    protected void setGeneratedId(int id, InventoryDto dto) {
+        dto.setInventoryId(id);
     }
 
     /**
      * getAllByFacilityId
      *
      * Get all corresponding row in the database for the DTO with the filter
-     * of facility id.
+     * of facility id. Only the facility's shard is queried.
      *
      * @param String facilityId - The specified facility id.
      * @return The list of inventories that belongs to the specified facility.
      * @throws DaoException Any errors that occur during connection, statement, and resultset.
      */
     public List<InventoryDto> getAllByFacilityId(int facilityId) throws DaoException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         List<InventoryDto> inventories = new ArrayList<>();
 
-        try {
-            conn = pool.getConnection();
-            stmt = conn.prepareStatement(getInventoriesByFacilityIDQuery());
-
+        try (Connection conn = registry.getPool(facilityId).getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(getInventoriesByFacilityIDQuery())) {
             stmt.setInt(1, facilityId);
 
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                InventoryDto inventory = new InventoryDto();
-                convertRStoDto(rs, inventory);
-                inventories.add(inventory);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    InventoryDto inventory = new InventoryDto();
+                    convertRStoDto(rs, inventory);
+                    inventories.add(inventory);
+                }
             }
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing ResultSet: ", se.getMessage());
-                }
-            }
-
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException se) {
-                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                }
-            }
-
-            if (conn != null) {
-                pool.releaseConnection(conn);
-            }
         }
 
         return inventories;
@@ -304,6 +302,51 @@ public class InventoryDaoImpl extends BaseDaoImpl<InventoryDto> implements Inven
         return _primaryKey;
     }
 
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
+
+    /**
+     * isSharded
+     *
+     * Inventory is split across the facility shards.
+     *
+     * @return boolean - Always true.
+     */
+    @Override
+    protected boolean isSharded() {
+        return true;
+    }
+
+    /**
+     * getShardColumn
+     *
+     * @return String - The facility id column.
+     */
+    @Override
+    protected String getShardColumn() {
+        return "facility_id";
+    }
+
+    /**
+     * getShardPool
+     *
+     * @param InventoryDto dto - The inventory row.
+     * @return ConnectionPool - The shard of the inventory's facility.
+     */
+    @Override
+    protected ConnectionPool getShardPool(InventoryDto dto) {
+        return registry.getPool(dto.getFacilityId());
+    }
+
     /**
      * getInventoriesByFacilityIDQuery
      *
@@ -2,7 +2,11 @@ package org.fakeskymeal.dao.impl;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,8 +14,11 @@ import org.fakeskymeal.dao.MealDao;
 import org.fakeskymeal.dao.exception.DaoException;
 
 import org.fakeskymeal.dto.MealDto;
+import org.fakeskymeal.dto.MealDtoBinder;
+import org.fakeskymeal.dto.MealDtoMapper;
 
 import util.jdbc.ConnectionPool;
+import util.jdbc.DataSourceRegistry;
 
 /**
  * MealDaoImpl
@@ -23,10 +30,15 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
 
     String _tableName = "meals";
     String _primaryKey = "id";
+    Set<String> _columns = Set.of("id", "inventory_id", "name", "meal_type", "is_vegetarian", "quantity", "weight", "created_date", "description");
     Properties _queries;
 
     public MealDaoImpl(ConnectionPool pool) {
-        super(pool, MealDto.class);
+        this(DataSourceRegistry.single(pool));
+    }
+
+    public MealDaoImpl(DataSourceRegistry registry) {
+        super(registry, MealDto::new);
 
         // Load the SQL queries
         _queries = new Properties();
@@ -68,6 +80,29 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
         return super.getRow(field, value);
     }
 
+    /**
+     * checkUpdates
+     *
+     * The new inventory of an update must be on the same shard. The new
+     * inventories of the whole batch are located in one lookup.
+     *
+     * @param List dtos - The rows being updated.
+     * @param List params - Values to update each row, in the order of dtos.
+     * @param List shards - The shard each row is on, in the order of dtos.
+     * @throws DaoException If an update would move a row to another shard.
+     */
+    @Override
+    protected void checkUpdates(List<MealDto> dtos, List<String[]> params, List<ConnectionPool> shards) throws DaoException {
+        List<Integer> inventoryIds = new ArrayList<>(params.size());
+        for (String[] values : params) {
+            inventoryIds.add(Integer.parseInt(values[0]));
+        }
+        Map<Integer, ConnectionPool> updated = findShardPools("inventory_stock", "id", inventoryIds);
+        for (int i = 0; i < dtos.size(); i++) {
+            requireSameShard(shards.get(i), updated.get(inventoryIds.get(i)));
+        }
+    }
+
     /**
      * prepareInsert
      *
@@ -80,14 +115,7 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
      */
     @Override
     protected void prepareInsert(PreparedStatement stmt, MealDto dto) throws SQLException {
-        stmt.setInt(1, dto.getInventoryId());
-        stmt.setString(2, dto.getName());
-        stmt.setString(3, dto.getMealType());
-        stmt.setBoolean(4, dto.isVegetarian());
-        stmt.setInt(5, dto.getQuantity());
-        stmt.setFloat(6, dto.getWeight());
-        stmt.setDate(7, dto.getCreatedDate());
-        stmt.setString(8, dto.getDescription());
+        MealDtoBinder.bindInsert(stmt, dto);
     }
 
     /**
@@ -103,15 +131,7 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
      */
     @Override
     protected void prepareUpdate(PreparedStatement stmt, MealDto dto, String[] params) throws SQLException {
-        stmt.setInt(1, Integer.parseInt(params[0])); // new inventory_id
-        stmt.setString(2, params[1]); // new name
-        stmt.setString(3, params[2]); // new meal_type
-        stmt.setBoolean(4, Boolean.parseBoolean(params[3]));
-        stmt.setInt(5, Integer.parseInt(params[4])); // new quantity
-        stmt.setFloat(6, Float.parseFloat(params[5])); // new weight
-        stmt.setDate(7, Date.valueOf(params[6])); // new created_date
-        stmt.setString(8, params[7]); // new description
-        stmt.setInt(9, dto.getMealId()); // WHERE id = ?
+        MealDtoBinder.bindUpdate(stmt, dto, params);
     }
 
     /**
@@ -126,14 +146,7 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
      */
     @Override
     protected void applyParamsToDto(MealDto dto, String[] params) {
-        dto.setInventoryId(Integer.parseInt(params[0]));
-        dto.setName(params[1]);
-        dto.setMealType(params[2]);
-        dto.setVegetarian(Boolean.parseBoolean(params[3]));
-        dto.setQuantity(Integer.parseInt(params[4]));
-        dto.setWeight(Float.parseFloat(params[5]));
-        dto.setCreatedDate(Date.valueOf(params[6]));
-        dto.setDescription(params[7]);
+        MealDtoBinder.apply(dto, params);
     }
 
     /**
@@ -148,22 +161,21 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
      */
     @Override
     protected void prepareDelete(PreparedStatement stmt, MealDto dto) throws SQLException {
-        stmt.setInt(1, dto.getMealId());
+        MealDtoBinder.bindId(stmt, dto);
     }
 
     /**
      * setGeneratedId
      *
-     * Extracts the generated primary key from the given {@link ResultSet}
-     * and assigns it to the Data Transfer Object after a successful INSERT.
+     * Assigns the primary key generated by the database to the Data Transfer
+     * Object after a successful INSERT.
      *
-     * @param ResultSet keys - The ResultSet containing generated keys.
+     * @param int id - The generated primary key.
      * @param MealDto dto - The Data Transfer Object to update with the generated ID.
-     * @throws SQLException if a database access error occurs or no key is found.
      */
     @Override
-    protected void setGeneratedId(ResultSet keys, MealDto dto) throws SQLException {
-        dto.setMealId(keys.getInt(1));
+    protected void setGeneratedId(int id, MealDto dto) {
+        dto.setMealId(id);
     }
 
     /**
@@ -180,15 +192,7 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
     @Override
     protected void convertRStoDto(ResultSet result, MealDto dto) throws DaoException {
         try {
-            dto.setMealId(result.getInt(1));
-            dto.setInventoryId(result.getInt(2));
-            dto.setName(result.getString(3));
-            dto.setMealType(result.getString(4));
-            dto.setVegetarian(result.getBoolean(5));
-            dto.setQuantity(result.getInt(6));
-            dto.setWeight(result.getFloat(7));
-            dto.setCreatedDate(result.getDate(8));
-            dto.setDescription(result.getString(9));
+            MealDtoMapper.read(result, dto);
         } catch (SQLException se) {
             throw new DaoException(se.getMessage());
         }
@@ -265,4 +269,64 @@ public class MealDaoImpl extends BaseDaoImpl<MealDto> implements MealDao {
     protected String getPrimaryKey() {
         return _primaryKey;
     }
+
+    /**
+     * getColumns
+     *
+     * Returns the columns find() may filter and order by
+     *
+     * @return Set - Column names
+     */
+    @Override
+    protected Set<String> getColumns() {
+        return _columns;
+    }
+
+    /**
+     * isSharded
+     *
+     * Meals are stored with their inventory, on its facility's shard.
+     *
+     * @return boolean - Always true.
+     */
+    @Override
+    protected boolean isSharded() {
+        return true;
+    }
+
+    /**
+     * getShardPool
+     *
+     * @param MealDto dto - The meal row.
+     * @return ConnectionPool - The shard holding the meal's inventory.
+     * @throws DaoException If the inventory does not exist, or any errors during the lookup.
+     */
+    @Override
+    protected ConnectionPool getShardPool(MealDto dto) throws DaoException {
+        return findShardPool("inventory_stock", "id", dto.getInventoryId());
+    }
+
+    /**
+     * getShardPools
+     *
+     * Locates the inventories of the whole batch in one lookup instead of one
+     * per row.
+     *
+     * @param List dtos - The meal rows.
+     * @return List - The shard holding each meal's inventory, in the order of dtos.
+     * @throws DaoException If an inventory does not exist, or any errors during the lookup.
+     */
+    @Override
+    protected List<ConnectionPool> getShardPools(List<MealDto> dtos) throws DaoException {
+        List<Integer> inventoryIds = new ArrayList<>(dtos.size());
+        for (MealDto dto : dtos) {
+            inventoryIds.add(dto.getInventoryId());
+        }
+        Map<Integer, ConnectionPool> owners = findShardPools("inventory_stock", "id", inventoryIds);
+        List<ConnectionPool> shards = new ArrayList<>(dtos.size());
+        for (Integer inventoryId : inventoryIds) {
+            shards.add(owners.get(inventoryId));
+        }
+        return shards;
+    }
 }
@@ -2,15 +2,28 @@ package org.fakeskymeal.dto;
 
 import java.sql.Date;
 
+import org.fakeskymeal.dto.mapping.Column;
+import org.fakeskymeal.dto.mapping.Mapped;
+
+@Mapped
 public class BeverageDto extends BaseDto {
+    @Column(value = "id", id = true)
     int beverageId;
+    @Column("inventory_id")
     int inventoryId;
+    @Column("name")
     String name;
+    @Column("brand")
     String brand;
+    @Column("quantity")
     int quantity;
+    @Column("weight")
     float weight; // Per individual quantity
+    @Column("delivered_date")
     Date deliveredDate;
+    @Column("expiration_date")
     Date expirationDate;
+    @Column("description")
     String description;
 
     public BeverageDto() {
@@ -2,15 +2,28 @@ package org.fakeskymeal.dto;
 
 import java.sql.Date;
 
+import org.fakeskymeal.dto.mapping.Column;
+import org.fakeskymeal.dto.mapping.Mapped;
+
+@Mapped
 public class MealDto extends BaseDto {
+    @Column(value = "id", id = true)
     int mealId;
+    @Column("inventory_id")
     int inventoryId;
+    @Column("name")
     String name;
+    @Column("meal_type")
     String mealType;
+    @Column("is_vegetarian")
     boolean isVegetarian;
+    @Column("quantity")
     int quantity;
+    @Column("weight")
     float weight;
+    @Column("created_date")
     Date createdDate;
+    @Column("description")
     String description;
 
     public MealDto() {
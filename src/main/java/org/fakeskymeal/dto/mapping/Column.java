@@ -0,0 +1,26 @@
+package org.fakeskymeal.dto.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Column
+ *
+ * A field of a @Mapped DTO that maps to a table column. The field needs a
+ * public getter (getX, or isX for booleans) and setter.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Column {
+    /**
+     * @return String - The column name.
+     */
+    String value();
+
+    /**
+     * @return boolean - Whether this is the generated primary key.
+     */
+    boolean id() default false;
+}
@@ -0,0 +1,25 @@
+package org.fakeskymeal.dto.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mapped
+ *
+ * Marks a DTO for the row mapper annotation processor (see the processor
+ * project). For a DTO Foo it generates, in Foo's package:
+ *
+ * FooMapper - Copies a result set row into Foo, reading the @Column fields
+ *             by position in declaration order.
+ * FooBinder - Binds Foo, or an update's String params, to INSERT, UPDATE
+ *             and DELETE statements.
+ *
+ * The DAO's SELECT must list the columns in the same order as the fields,
+ * and its INSERT and UPDATE the same columns without the id.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Mapped {
+}
@@ -4,14 +4,23 @@ import util.jdbc.ConnectionPoolSingleton;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Properties;
 import java.util.concurrent.*;
+import java.util.stream.Stream;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import java.io.IOException;
 import java.sql.SQLException;
 
 import org.fakeskymeal.dao.BaseDao;
+import org.fakeskymeal.dao.Criteria;
+import org.fakeskymeal.dao.Page;
+import org.fakeskymeal.dao.SortOrder;
 import org.fakeskymeal.dao.exception.DaoException;
 
 import org.junit.jupiter.api.*;
@@ -53,6 +62,13 @@ public abstract class BaseDaoTest<D extends BaseDao<T>, T> {
         assertThrows(DaoException.class, () -> getDao().get(-999));
     }
 
+    @Test
+    void testGetAllByIds() throws DaoException {
+        Map<Integer, T> rows = getDao().getAll(List.of(getValidId(), -999, getValidId()));
+        assertEquals(Set.of(getValidId()), rows.keySet());
+        assertEquals(getValidId(), getId(rows.get(getValidId())));
+    }
+
     @Test
     void testGetOneByParam() throws DaoException {
         T dto = getDao().getRow(getValidField(), getValidValue());
@@ -64,6 +80,56 @@ public abstract class BaseDaoTest<D extends BaseDao<T>, T> {
         assertThrows(DaoException.class, () -> getDao().getRow("invalid_field", "invalid_value"));
     }
 
+    @Test
+    void testFind() throws DaoException {
+        assertFalse(getDao().find(new Criteria().eq(getValidField(), getValidValue()).limit(1)).isEmpty());
+
+        Criteria criteria = new Criteria()
+                .in("id", List.of(getValidId(), -1, -2))
+                .ge("id", getValidId())
+                .orderBy("id", SortOrder.DESC)
+                .limit(5);
+        List<T> rows = getDao().find(criteria);
+        assertEquals(1, rows.size());
+        assertEquals(getValidId(), getId(rows.getFirst()));
+
+        // The same shape again, served from the query cache
+        assertEquals(rows.size(), getDao().find(criteria).size());
+        assertThrows(DaoException.class, () -> getDao().find(new Criteria().eq("id; DROP TABLE x", 1)));
+    }
+
+    @Test
+    void testStreamAll() throws DaoException {
+        List<Integer> expected = getDao().getAll().stream().map(this::getId).sorted().toList();
+
+        try (Stream<T> rows = getDao().streamAll()) {
+            assertEquals(expected, rows.map(this::getId).sorted().toList());
+        }
+        try (Stream<T> rows = getDao().streamAll(2)) {
+            assertEquals(expected.getFirst(), rows.map(this::getId).min(Integer::compare).orElseThrow());
+        }
+    }
+
+    @Test
+    void testPage() throws DaoException {
+        List<Integer> expected = getDao().getAll().stream().map(this::getId).sorted().toList();
+
+        // Walk every page forward with the continuation token
+        List<Integer> paged = new ArrayList<>();
+        Page<T> page = getDao().page(null, 2, SortOrder.ASC);
+        paged.addAll(page.getRows().stream().map(this::getId).toList());
+        while (page.hasNext()) {
+            page = getDao().page(page.getNextAfterId(), 2, SortOrder.ASC);
+            assertTrue(page.getRows().size() <= 2);
+            paged.addAll(page.getRows().stream().map(this::getId).toList());
+        }
+        assertEquals(expected, paged);
+
+        Page<T> last = getDao().page(null, 1, SortOrder.DESC);
+        assertEquals(expected.getLast(), getId(last.getRows().getFirst()));
+        assertEquals(expected.size() > 1, last.hasNext());
+    }
+
     @Test
     void testCRUD() {
         T dto = createTestDto();
@@ -106,32 +172,66 @@ public abstract class BaseDaoTest<D extends BaseDao<T>, T> {
         } finally {
             // Workaround to auto incrementing on CRUD testing
             if (inserted && originalAutoIncrement > 0) {
-                Connection conn = null;
-                PreparedStatement stmt = null;
+                resetAutoIncrement(originalAutoIncrement);
+            }
+        }
+    }
 
-                try {
-                    conn = pool.getConnection();
-                    String sql = "ALTER TABLE " + ((BaseDaoImpl<?>) getDao()).getTableName() + " AUTO_INCREMENT = ?";
-                    stmt = conn.prepareStatement(sql);
+    @Test
+    void testSaveAll() throws DaoException {
+        List<T> dtos = List.of(createTestDto(), createTestDto(), createTestDto());
 
-                    stmt.setInt(1, originalAutoIncrement);
-                    stmt.executeUpdate();
-                } catch (SQLException se) {
-                    System.err.println("Failed to reset AUTO_INCREMENT: " + se.getMessage());
-                } finally {
-                    if (stmt != null) {
-                        try {
-                            stmt.close();
-                        } catch (SQLException se) {
-                            LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
-                        }
-                    }
+        try {
+            // Two batches: one full, one partial
+            getDao().saveAll(dtos, 2);
 
-                    if (conn != null) {
-                        pool.releaseConnection(conn);
+            Set<Integer> ids = new HashSet<>();
+            for (T dto : dtos) {
+                assertTrue(getId(dto) > 0, "ID should be set after batch insert");
+                assertNotNull(getDao().get(getId(dto)));
+                ids.add(getId(dto));
+            }
+            assertEquals(dtos.size(), ids.size(), "Every row should get its own ID");
+        } finally {
+            int firstId = Integer.MAX_VALUE;
+            for (T dto : dtos) {
+                if (getId(dto) > 0) {
+                    firstId = Math.min(firstId, getId(dto));
+                    try {
+                        getDao().delete(dto);
+                    } catch (DaoException ignored) {
+                        // Row was never inserted [ignored]
                     }
                 }
             }
+            if (firstId != Integer.MAX_VALUE) {
+                resetAutoIncrement(firstId);
+            }
+        }
+    }
+
+    @Test
+    void testBatchUpdateAndDelete() throws DaoException {
+        List<T> dtos = List.of(createTestDto(), createTestDto());
+        getDao().saveAll(dtos);
+        int firstId = Math.min(getId(dtos.get(0)), getId(dtos.get(1)));
+
+        try {
+            // Update
+            String[] params = getUpdatedParams();
+            getDao().updateAll(dtos, List.of(params, params));
+            for (T dto : dtos) {
+                verifyUpdated(getDao().get(getId(dto)), params);
+            }
+
+            // Delete by DTO, then by ID; a missing ID is skipped
+            getDao().deleteAll(List.of(dtos.get(0)));
+            assertThrows(DaoException.class, () -> getDao().get(getId(dtos.get(0))));
+            assertEquals(1, getDao().deleteAllById(List.of(getId(dtos.get(0)), getId(dtos.get(1)))));
+            assertThrows(DaoException.class, () -> getDao().get(getId(dtos.get(1))));
+        } finally {
+            getDao().deleteAllById(List.of(getId(dtos.get(0)), getId(dtos.get(1))));
+            resetAutoIncrement(firstId);
         }
     }
 
@@ -202,6 +302,41 @@ public abstract class BaseDaoTest<D extends BaseDao<T>, T> {
         assertTrue(executor.isShutdown() || executor.isTerminated(), "Executor should be shut down.");
     }
 
+    /**
+     * resetAutoIncrement
+     *
+     * Winds the table's AUTO_INCREMENT back after test rows were deleted.
+     *
+     * @param int autoIncrement - The first ID the test inserted.
+     */
+    private void resetAutoIncrement(int autoIncrement) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = pool.getConnection();
+            String sql = "ALTER TABLE " + ((BaseDaoImpl<?>) getDao()).getTableName() + " AUTO_INCREMENT = ?";
+            stmt = conn.prepareStatement(sql);
+
+            stmt.setInt(1, autoIncrement);
+            stmt.executeUpdate();
+        } catch (SQLException se) {
+            System.err.println("Failed to reset AUTO_INCREMENT: " + se.getMessage());
+        } finally {
+            if (stmt != null) {
+                try {
+                    stmt.close();
+                } catch (SQLException se) {
+                    LOGGER.log(Level.WARNING, "Error closing Statement: ", se.getMessage());
+                }
+            }
+
+            if (conn != null) {
+                pool.releaseConnection(conn);
+            }
+        }
+    }
+
     /**
      * proxyToJson
      *
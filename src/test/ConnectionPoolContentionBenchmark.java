@@ -0,0 +1,124 @@
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ConnectionPoolContentionBenchmark
+ *
+ * Measures connection acquisition latency of the connection pool under
+ * contention, without a database. The pool is fed in-memory stub
+ * connections and a fixed number of borrower threads repeatedly
+ * acquire, hold and release a connection.
+ *
+ * Run the main method; results are printed as p50/p99/max per borrower count.
+ */
+public class ConnectionPoolContentionBenchmark {
+    private static final int POOL_SIZE = 8;
+    private static final int[] BORROWERS = {8, 64, 512};
+    private static final int OPERATIONS_PER_RUN = 50_000;
+    private static final long HOLD_NANOS = 20_000; // 20 us of simulated work per borrow
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Pool size: " + POOL_SIZE + ", hold time: " + HOLD_NANOS / 1000 + " us");
+        System.out.printf("%10s %12s %12s %12s %14s%n", "borrowers", "p50 (us)", "p99 (us)", "max (us)", "ops/sec");
+
+        runScenario(8, 5_000, false); // warm-up
+        for (int borrowers : BORROWERS) {
+            runScenario(borrowers, OPERATIONS_PER_RUN, true);
+        }
+    }
+
+    /**
+     * runScenario
+     *
+     * Drives the given number of borrower threads through the pool and prints
+     * the acquisition latency percentiles.
+     *
+     * @param int borrowers - The number of concurrent borrower threads.
+     * @param int operations - The total number of borrows across all threads.
+     * @param boolean report - Whether to print the results (false for warm-up).
+     */
+    private static void runScenario(int borrowers, int operations, boolean report) throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(POOL_SIZE);
+        config.setConnectionTimeoutMillis(60_000);
+        config.setConnectionFactory(ConnectionPoolContentionBenchmark::stubConnection);
+        ConnectionPool pool = new ConnectionPool(config);
+
+        int perThread = operations / borrowers;
+        long[][] latencies = new long[borrowers][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[borrowers];
+
+        for (int t = 0; t < borrowers; t++) {
+            final long[] samples = latencies[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < samples.length; i++) {
+                        long begin = System.nanoTime();
+                        Connection conn = pool.getConnection();
+                        samples[i] = System.nanoTime() - begin;
+                        LockSupport.parkNanos(HOLD_NANOS);
+                        pool.releaseConnection(conn);
+                    }
+                } catch (InterruptedException | SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }, "borrower-" + t);
+            threads[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (report) {
+            System.out.printf("%10d %12.1f %12.1f %12.1f %14.0f%n", borrowers,
+                    percentile(all, 0.50) / 1000.0,
+                    percentile(all, 0.99) / 1000.0,
+                    all[all.length - 1] / 1000.0,
+                    all.length / (elapsed / 1_000_000_000.0));
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * stubConnection
+     *
+     * @return Connection - An in-memory connection that only supports isClosed/close.
+     */
+    private static Connection stubConnection() {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPoolContentionBenchmark.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> closed.get();
+                    case "isValid" -> !closed.get();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> throw new SQLException("Not supported by stub connection: " + method.getName());
+                });
+    }
+}
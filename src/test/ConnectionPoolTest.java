@@ -1,14 +1,39 @@
 import util.jdbc.ConnectionPool;
-
+import util.jdbc.ConnectionPoolConfig;
+import util.jdbc.DataSourceRegistry;
+import util.jdbc.DriverProfile;
+import util.jdbc.JdbcConnection;
+import util.jdbc.PoolMetrics;
+import util.jdbc.PrimarySession;
+import util.jdbc.Priority;
+
+import org.fakeskymeal.dao.impl.InventoryDaoImpl;
+import org.fakeskymeal.dto.InventoryDto;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,25 +71,31 @@ public class ConnectionPoolTest {
     }
 
     @Test
-    // Tests cyclic connection pool queue
+    // Tests thread-affine connection reuse
     void testCyclicAcquisition() throws SQLException {
-        pool.dumpPool("Initial pool state:"); // DEBUG
+        System.out.println("Initial pool state: " + pool.getMetrics()); // DEBUG
 
         // Acquire and release one connection
         Connection conn1 = pool.getConnection();
         pool.releaseConnection(conn1);
 
-        // Fill the pool with other connections (except one spot to avoid blocking)
+        // Reacquire from pool on the same thread — should get conn1 back
+        Connection conn2 = pool.getConnection();
+        assertSame(conn1.unwrap(Connection.class), conn2.unwrap(Connection.class),
+                "Connection released should be reused by the same thread");
+
+        // Fill the pool with the other connections
         List<Connection> otherConnections = new ArrayList<>();
         for (int i = 0; i < pool.getSize() - 1; i++) {
             otherConnections.add(pool.getConnection());
         }
 
-        pool.dumpPool("Acquire all the connections beside one:"); // DEBUG
+        System.out.println("Acquire all the connections: " + pool.getMetrics()); // DEBUG
 
-        // Reacquire from pool — should get conn1 back
-        Connection conn2 = pool.getConnection();
-        assertSame(conn1, conn2, "Connection released should be reused");
+        for (Connection conn : otherConnections) {
+            assertNotSame(conn2.unwrap(Connection.class), conn.unwrap(Connection.class),
+                    "A borrowed connection should never be handed out twice");
+        }
 
         // Release resources
         pool.releaseConnection(conn2);
@@ -72,7 +103,7 @@ public class ConnectionPoolTest {
             pool.releaseConnection(conn);
         }
 
-        pool.dumpPool("End pool state:"); // DEBUG
+        System.out.println("End pool state: " + pool.getMetrics()); // DEBUG
     }
 
     @Test
@@ -201,9 +232,11 @@ public class ConnectionPoolTest {
     @Test
     void testShutdownClosesConnections() throws SQLException {
         Connection conn = pool.getConnection();
+        Connection physical = conn.unwrap(Connection.class);
         pool.releaseConnection(conn);
+        assertFalse(physical.isClosed(), "Releasing should not close the underlying connection");
         pool.shutdown();
-        assertTrue(conn.isClosed(), "Connections should be closed after shutdown");
+        assertTrue(physical.isClosed(), "Connections should be closed after shutdown");
         pool = null; // Blocks @AfterEach from double shutdown
     }
 
@@ -216,4 +249,690 @@ public class ConnectionPoolTest {
             pool.releaseConnection(conn);
         }
     }
+
+    @Test
+    // Elastic pool should open connections on demand up to its maximum
+    void testGrowsUpToMaxSize() throws SQLException {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(1);
+        config.setMaxSize(3);
+        ConnectionPool elastic = new ConnectionPool(config);
+
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            assertEquals(1, elastic.getTotalConnections(), "Pool should start at its minimum size");
+            for (int i = 0; i < elastic.getSize(); i++) {
+                borrowed.add(elastic.getConnection());
+            }
+            assertEquals(3, elastic.getTotalConnections(), "Pool should have grown to its maximum size");
+            assertThrows(SQLException.class, () -> elastic.getConnection(200));
+        } finally {
+            for (Connection conn : borrowed) {
+                elastic.releaseConnection(conn);
+            }
+            elastic.shutdown();
+        }
+    }
+
+    @Test
+    // Housekeeper should shrink the pool back to its minimum once connections are idle
+    void testIdleConnectionsEvicted() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(1);
+        config.setMaxSize(3);
+        config.setIdleTimeoutMillis(200);
+        config.setHousekeepingIntervalMillis(100);
+        ConnectionPool elastic = new ConnectionPool(config);
+
+        try {
+            Connection c1 = elastic.getConnection();
+            Connection c2 = elastic.getConnection();
+            Connection c3 = elastic.getConnection();
+            elastic.releaseConnection(c1);
+            elastic.releaseConnection(c2);
+            elastic.releaseConnection(c3);
+            assertEquals(3, elastic.getTotalConnections());
+
+            Thread.sleep(1000);
+            assertEquals(1, elastic.getTotalConnections(), "Idle connections above the minimum should be evicted");
+        } finally {
+            elastic.shutdown();
+        }
+    }
+
+    @Test
+    // A connection closed underneath the pool should be replaced, not permanently lost
+    void testBrokenConnectionIsReplaced() throws Exception {
+        Connection conn = pool.getConnection();
+        conn.unwrap(Connection.class).close(); // simulate a connection killed by the server
+        pool.releaseConnection(conn);
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (pool.getTotalConnections() < pool.getSize() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(pool.getSize(), pool.getTotalConnections(), "Broken connection should have been replaced");
+    }
+
+    @Test
+    // Idle connections are validated on borrow and dead ones are skipped
+    void testBorrowValidatesIdleConnections() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setValidationSkipWindowMillis(0);
+        ConnectionPool validating = new ConnectionPool(config);
+
+        try {
+            Connection borrowed = validating.getConnection();
+            Connection dead = borrowed.unwrap(Connection.class);
+            validating.releaseConnection(borrowed);
+            dead.close(); // killed while idle in the pool
+
+            Connection conn = validating.getConnection();
+            assertNotSame(dead, conn.unwrap(Connection.class), "A dead idle connection should not be handed out");
+            assertTrue(conn.isValid(1), "Borrowed connection should be valid");
+            validating.releaseConnection(conn);
+        } finally {
+            validating.shutdown();
+        }
+    }
+
+    @Test
+    // Closing the proxy returns the connection to the pool and disables the proxy
+    void testCloseReturnsConnectionToPool() throws SQLException {
+        Connection physical;
+        try (Connection conn = pool.getConnection()) {
+            physical = conn.unwrap(Connection.class);
+            assertEquals(pool.getSize() - 1, pool.getIdleConnections());
+        }
+        assertEquals(pool.getSize(), pool.getIdleConnections(), "Closing should return the connection to the pool");
+        assertFalse(physical.isClosed(), "Closing the proxy should not close the underlying connection");
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close(); // double close is harmless
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement, "A returned connection should reject further use");
+        assertEquals(pool.getSize(), pool.getIdleConnections());
+    }
+
+    @Test
+    // A connection held beyond the leak threshold is reported with the borrower's stack trace
+    void testLeakDetection() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setLeakDetectionThresholdMillis(200);
+        ConnectionPool leaky = new ConnectionPool(config);
+
+        List<LogRecord> records = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger poolLogger = Logger.getLogger(ConnectionPool.class.getName());
+        poolLogger.addHandler(handler);
+
+        try {
+            Connection conn = leaky.getConnection();
+            Thread.sleep(600);
+            conn.close();
+
+            LogRecord leak = records.stream()
+                    .filter(r -> r.getLevel() == Level.WARNING && r.getThrown() != null)
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Leak should have been reported"));
+            StackTraceElement[] trace = leak.getThrown().getStackTrace();
+            assertTrue(List.of(trace).stream().anyMatch(e -> e.getMethodName().equals("testLeakDetection")),
+                    "Leak report should point at the borrowing code");
+        } finally {
+            poolLogger.removeHandler(handler);
+            leaky.shutdown();
+        }
+    }
+
+    @Test
+    // Metrics should count borrows, timeouts and hold times and be exported over JMX
+    void testMetrics() throws Exception {
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(pool.getSize(), metrics.getConnectionsCreated());
+
+        Connection[] connections = new Connection[pool.getSize()];
+        for (int i = 0; i < pool.getSize(); i++) {
+            connections[i] = pool.getConnection();
+        }
+        assertEquals(pool.getSize(), metrics.getActiveConnections());
+        assertEquals(0, metrics.getIdleConnections());
+        assertThrows(SQLException.class, () -> pool.getConnection(100));
+        assertEquals(1, metrics.getTimeoutCount());
+
+        Thread.sleep(50);
+        for (Connection conn : connections) {
+            conn.close();
+        }
+        assertEquals(pool.getSize(), metrics.getBorrowCount());
+        assertEquals(pool.getSize(), metrics.getHoldTimeHistogram().getCount());
+        assertTrue(metrics.getHoldTimeP50Micros() >= 50_000, "Hold time should cover the time the connection was held");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("util.jdbc:type=ConnectionPool,name=" + ObjectName.quote(pool.getPoolName()));
+        assertEquals(pool.getSize(), server.getAttribute(name, "IdleConnections"));
+        assertEquals(1L, server.getAttribute(name, "TimeoutCount"));
+        System.out.println(metrics);
+    }
+
+    @Test
+    // Warm-up should open connections concurrently and return once minReady are available
+    void testParallelWarmUp() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(4);
+        config.setMaxSize(4);
+        config.setMinReady(1);
+        config.setConnectionFactory(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return JdbcConnection.createConnection();
+        });
+
+        long start = System.nanoTime();
+        ConnectionPool warm = new ConnectionPool(config);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        try {
+            assertTrue(elapsedMillis < 4 * 300, "Connections should be opened in parallel, took " + elapsedMillis + " ms");
+            assertTrue(warm.getIdleConnections() >= 1);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (warm.getIdleConnections() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(4, warm.getTotalConnections());
+            assertEquals(4, warm.getIdleConnections());
+        } finally {
+            warm.shutdown();
+        }
+    }
+
+    @Test
+    // Closing a prepared statement should return it to the connection's statement cache
+    void testStatementCache() throws SQLException {
+        PoolMetrics metrics = pool.getMetrics();
+        long hits = metrics.getStatementCacheHits();
+        long misses = metrics.getStatementCacheMisses();
+        String sql = "SELECT * FROM airline_companies WHERE id = ?";
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement physical;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, 1);
+                try (ResultSet result = stmt.executeQuery()) {
+                    assertNotNull(result);
+                }
+                physical = stmt.unwrap(PreparedStatement.class);
+            }
+            assertFalse(physical.isClosed(), "Cached statement should stay open");
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 PreparedStatement concurrent = conn.prepareStatement(sql)) {
+                assertSame(physical, stmt.unwrap(PreparedStatement.class));
+                stmt.setInt(1, 1);
+                try (ResultSet result = stmt.executeQuery()) {
+                    assertNotNull(result, "The cached statement should still execute");
+                }
+                assertNotSame(physical, concurrent.unwrap(PreparedStatement.class),
+                        "Statements open at the same time must not share a physical statement");
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                assertNotSame(physical, stmt.unwrap(PreparedStatement.class), "Generated-key mode is part of the cache key");
+            }
+        }
+
+        assertEquals(hits + 1, metrics.getStatementCacheHits());
+        assertEquals(misses + 3, metrics.getStatementCacheMisses());
+    }
+
+    @Test
+    // The least recently used statement should be closed once the cache is full, the rest with their connection
+    void testStatementCacheEviction() throws SQLException {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setStatementCacheSize(2);
+        ConnectionPool small = new ConnectionPool(config);
+        PreparedStatement[] physical = new PreparedStatement[3];
+        try (Connection conn = small.getConnection()) {
+            for (int i = 0; i < physical.length; i++) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT " + i)) {
+                    physical[i] = stmt.unwrap(PreparedStatement.class);
+                }
+            }
+            assertTrue(physical[0].isClosed(), "Eldest statement should have been evicted");
+            assertFalse(physical[1].isClosed());
+            assertFalse(physical[2].isClosed());
+        } finally {
+            small.shutdown();
+        }
+        assertTrue(physical[1].isClosed() && physical[2].isClosed(), "Cached statements should be closed with their connection");
+    }
+
+    @Test
+    // With fair admission, thousands of virtual threads should share a small pool without deadlock
+    void testFairAdmissionWithVirtualThreads() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(4);
+        config.setFairAdmission(true);
+        config.setConnectionTimeoutMillis(30_000);
+        ConnectionPool fair = new ConnectionPool(config);
+
+        int borrowers = 10_000;
+        AtomicInteger completed = new AtomicInteger();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < borrowers; i++) {
+                executor.submit(() -> {
+                    try (Connection conn = fair.getConnection()) {
+                        assertFalse(conn.isClosed());
+                        Thread.sleep(1);
+                        completed.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.add(e);
+                    }
+                });
+            }
+        }
+
+        try {
+            assertTrue(errors.isEmpty(), () -> "Borrowers failed: " + errors.getFirst());
+            assertEquals(borrowers, completed.get());
+            assertEquals(0, fair.getPendingThreads());
+            assertEquals(4, fair.getIdleConnections());
+            assertEquals(4, fair.getTotalConnections());
+        } finally {
+            fair.shutdown();
+        }
+    }
+
+    @Test
+    // Reads should go to the replicas round-robin, while writes and reads right after a write stay on the primary
+    void testReadWriteSplit() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(2);
+        config.setReadAfterWriteMillis(200);
+        ConnectionPool primary = new ConnectionPool(config);
+        ConnectionPool replica1 = new ConnectionPool(2);
+        ConnectionPool replica2 = new ConnectionPool(2);
+        primary.setReplicas(List.of(replica1, replica2));
+
+        try {
+            try (Connection first = primary.getReadConnection();
+                 Connection second = primary.getReadConnection()) {
+                assertNotSame(first, second);
+                assertEquals(0, primary.getActiveConnections());
+                assertEquals(1, replica1.getActiveConnections());
+                assertEquals(1, replica2.getActiveConnections());
+            }
+
+            try (Connection write = primary.getWriteConnection();
+                 Connection read = primary.getReadConnection()) {
+                assertNotSame(write, read);
+                assertEquals(2, primary.getActiveConnections(), "Read after write should use the primary");
+            }
+
+            Thread.sleep(300);
+            try (Connection read = primary.getReadConnection()) {
+                assertNotNull(read);
+                assertEquals(0, primary.getActiveConnections(), "Read-after-write window should have expired");
+            }
+
+            try (PrimarySession session = primary.pinToPrimary();
+                 Connection read = primary.getReadConnection()) {
+                assertNotNull(session);
+                assertNotNull(read);
+                assertEquals(1, primary.getActiveConnections(), "Pinned reads should use the primary");
+            }
+
+            replica1.shutdown();
+            replica2.shutdown();
+            try (Connection read = primary.getReadConnection()) {
+                assertNotNull(read);
+                assertEquals(1, primary.getActiveConnections(), "Reads should fall back to the primary");
+            }
+        } finally {
+            primary.shutdown();
+        }
+    }
+
+    @Test
+    // A multi-get large enough to run its chunks on other threads should still read its own writes from the primary
+    void testMultiGetAfterWriteUsesPrimary() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(2);
+        config.setReadAfterWriteMillis(60_000);
+        ConnectionPool primary = new ConnectionPool(config);
+        ConnectionPool replica = new ConnectionPool(2);
+        primary.setReplicas(List.of(replica));
+
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 1; id <= 1200; id++) {
+                ids.add(id);
+            }
+            InventoryDaoImpl dao = new InventoryDaoImpl(primary);
+
+            dao.getAll(ids);
+            assertTrue(replica.getMetrics().getBorrowCount() > 0, "Multi-get without a write should use the replica");
+
+            long replicaBorrows = replica.getMetrics().getBorrowCount();
+            long primaryBorrows = primary.getMetrics().getBorrowCount();
+            try (Connection write = primary.getWriteConnection()) {
+                assertFalse(write.isClosed());
+            }
+            dao.getAll(ids);
+            assertEquals(replicaBorrows, replica.getMetrics().getBorrowCount(), "Multi-get after a write should not use the replica");
+            assertTrue(primary.getMetrics().getBorrowCount() - primaryBorrows >= 3, "Every chunk should be read from the primary");
+        } finally {
+            primary.shutdown();
+        }
+    }
+
+    @Test
+    // Only the properties a borrower changed should be reset on release, rolling back an open transaction
+    void testDirtyStateReset() throws SQLException {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setConnectionFactory(() -> {
+            Connection physical = JdbcConnection.createConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") || method.getName().equals("rollback")) {
+                            calls.add(method.getName());
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        });
+        ConnectionPool tracked = new ConnectionPool(config);
+
+        try {
+            boolean defaultAutoCommit;
+            int defaultIsolation;
+            try (Connection conn = tracked.getConnection()) {
+                defaultAutoCommit = conn.getAutoCommit();
+                defaultIsolation = conn.getTransactionIsolation();
+            }
+            assertTrue(calls.isEmpty(), "Untouched connection should not be reset");
+
+            try (Connection conn = tracked.getConnection()) {
+                conn.setAutoCommit(false);
+                conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            }
+            assertEquals(List.of("setAutoCommit", "setTransactionIsolation", "rollback", "setTransactionIsolation", "setAutoCommit"), calls);
+
+            calls.clear();
+            try (Connection conn = tracked.getConnection()) {
+                assertEquals(defaultAutoCommit, conn.getAutoCommit());
+                assertEquals(defaultIsolation, conn.getTransactionIsolation());
+            }
+            assertTrue(calls.isEmpty(), "Reset connection should not be reset again");
+        } finally {
+            tracked.shutdown();
+        }
+    }
+
+    @Test
+    // A catalog or schema switched away from none cannot be reset, so the connection should not be lent again
+    void testCatalogAndSchemaReset() throws SQLException {
+        AtomicInteger opened = new AtomicInteger();
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(1);
+        config.setConnectionFactory(() -> {
+            Connection physical = JdbcConnection.createConnection();
+            Map<String, Object> names = new ConcurrentHashMap<>();
+            opened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        // The connection starts without a catalog or schema
+                        switch (method.getName()) {
+                            case "getCatalog", "getSchema" -> {
+                                return names.get(method.getName().substring(3));
+                            }
+                            case "setCatalog", "setSchema" -> {
+                                names.put(method.getName().substring(3), args[0]);
+                                return null;
+                            }
+                            default -> {
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            }
+                        }
+                    });
+        });
+        ConnectionPool tracked = new ConnectionPool(config);
+
+        try {
+            try (Connection conn = tracked.getConnection()) {
+                conn.setCatalog("other_catalog");
+            }
+            try (Connection conn = tracked.getConnection()) {
+                assertNull(conn.getCatalog(), "Catalog should not leak to the next borrower");
+                conn.setSchema("other_schema");
+            }
+            try (Connection conn = tracked.getConnection()) {
+                assertNull(conn.getSchema(), "Schema should not leak to the next borrower");
+            }
+            assertEquals(3, opened.get(), "Connections that could not be reset should be replaced");
+        } finally {
+            tracked.shutdown();
+        }
+    }
+
+    @Test
+    // Critical borrowers should get the reserved capacity while a full wait queue rejects others right away
+    void testPriorityLanes() throws Exception {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(1);
+        config.setMaxSize(3);
+        config.setReservedCritical(1);
+        config.setMaxWaiting(1);
+        config.setBulkTimeoutMillis(100);
+        ConnectionPool lanes = new ConnectionPool(config);
+
+        try {
+            Connection first = lanes.getConnection();
+            Connection second = lanes.getConnection(Priority.BULK);
+
+            // Only the reserved connection is left; a normal borrower has to wait for it to be shared capacity
+            CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lanes.getConnection(Priority.NORMAL, 2000);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            long deadline = System.currentTimeMillis() + 1000;
+            while (lanes.getPendingThreads() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(SQLTransientConnectionException.class, () -> lanes.getConnection(Priority.BULK));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50), "Full wait queue should reject right away");
+            assertEquals(1, lanes.getMetrics().getRejectedCount());
+
+            try (Connection critical = lanes.getConnection(Priority.CRITICAL, 100)) {
+                assertNotNull(critical, "Critical borrower should get the reserved connection");
+            }
+
+            first.close();
+            try (Connection handedOver = waiter.get(1, TimeUnit.SECONDS)) {
+                assertNotNull(handedOver);
+                start = System.nanoTime();
+                assertThrows(SQLException.class, () -> lanes.getConnection(Priority.BULK));
+                long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertTrue(waitedMillis >= 90 && waitedMillis < 1000, "Bulk lane should use its own timeout, waited " + waitedMillis + " ms");
+            }
+            second.close();
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+    @Test
+    // Expired connections should be replaced in the background, but only once they are returned
+    void testMaxLifetimeRotation() throws Exception {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fixed(2);
+        config.setMaxLifetimeMillis(300);
+        config.setMaxLifetimeJitterMillis(100);
+        config.setHousekeepingIntervalMillis(50);
+        ConnectionPool rotating = new ConnectionPool(config);
+
+        try {
+            Connection borrowed = rotating.getConnection();
+            Connection borrowedPhysical = borrowed.unwrap(Connection.class);
+            Thread.sleep(700);
+
+            assertFalse(borrowedPhysical.isClosed(), "Borrowed connection must not be retired mid-use");
+            assertTrue(rotating.getMetrics().getConnectionsCreated() >= 3, "Idle connection should have been replaced");
+            assertEquals(2, rotating.getTotalConnections());
+
+            borrowed.close();
+            long deadline = System.currentTimeMillis() + 2000;
+            while (!borrowedPhysical.isClosed() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(borrowedPhysical.isClosed(), "Expired connection should be retired once returned");
+            assertEquals(2, rotating.getTotalConnections());
+
+            try (Connection conn = rotating.getConnection()) {
+                assertNotSame(borrowedPhysical, conn.unwrap(Connection.class));
+            }
+        } finally {
+            rotating.shutdown();
+        }
+    }
+
+    @Test
+    // Draining should refuse new borrows, wait for returned connections and force-close the rest at the deadline
+    void testDrain() throws Exception {
+        ConnectionPool draining = new ConnectionPool(3);
+        Connection returned = draining.getConnection();
+        Connection kept = draining.getConnection();
+        Connection keptPhysical = kept.unwrap(Connection.class);
+        Connection returnedPhysical = returned.unwrap(Connection.class);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(200);
+                returned.close();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        long start = System.nanoTime();
+        int forceClosed = draining.drain(600);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, forceClosed);
+        assertTrue(elapsedMillis >= 550, "Drain should wait for the deadline, took " + elapsedMillis + " ms");
+        assertTrue(returnedPhysical.isClosed(), "Connection returned during the drain should be closed");
+        assertTrue(keptPhysical.isClosed(), "Connection still borrowed at the deadline should be force-closed");
+        assertEquals(0, draining.getTotalConnections());
+        assertThrows(IllegalStateException.class, draining::getConnection);
+
+        kept.close(); // late return after the drain must be harmless
+        assertEquals(0, draining.drain(100), "Draining twice should do nothing");
+    }
+
+    @Test
+    // Borrowers waiting on an exhausted pool should fail as soon as it is drained, not at their timeout
+    void testDrainWakesWaiters() throws Exception {
+        ConnectionPool draining = new ConnectionPool(1);
+        Connection held = draining.getConnection();
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, () -> draining.getConnection(10_000));
+            assertTrue(e.getMessage().contains("shut down"), e.getMessage());
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        });
+
+        while (draining.getPendingThreads() == 0) {
+            Thread.sleep(10);
+        }
+        draining.drain(0);
+
+        long waitedMillis = waiter.get(5, TimeUnit.SECONDS);
+        assertTrue(waitedMillis < 2_000, "Waiter should fail on drain, took " + waitedMillis + " ms");
+        assertEquals(0, draining.getMetrics().getTimeoutCount(), "A drained borrower is not a timeout");
+        held.close();
+    }
+
+    @Test
+    // Driver profiles should resolve their own Connector/J properties, accept .env overrides and open working connections
+    void testDriverProfiles() throws SQLException {
+        Properties overrides = new Properties();
+        overrides.setProperty("bulk-load.rewriteBatchedStatements", "false");
+        overrides.setProperty("reporting.defaultFetchSize", " 250 ");
+
+        assertEquals("true", DriverProfile.OLTP.getDriverProperties(new Properties()).getProperty("useServerPrepStmts"));
+        assertEquals("false", DriverProfile.BULK_LOAD.getDriverProperties(overrides).getProperty("rewriteBatchedStatements"));
+        assertEquals("250", DriverProfile.REPORTING.getDriverProperties(overrides).getProperty("defaultFetchSize"));
+        assertNull(DriverProfile.OLTP.getDriverProperties(overrides).getProperty("defaultFetchSize"),
+                "Properties of another profile must not leak in");
+        assertEquals(DriverProfile.BULK_LOAD, DriverProfile.fromName(" bulk-load "));
+
+        for (DriverProfile profile : DriverProfile.values()) {
+            try (Connection conn = JdbcConnection.createConnection(profile)) {
+                assertTrue(conn.isValid(2), profile + " connection should be usable");
+            }
+        }
+    }
+
+    @Test
+    // Facilities should map to shards by range or hash, and sharded DAO reads should fan out to every shard
+    void testShardRegistry() throws Exception {
+        ConnectionPool shard1 = new ConnectionPool(2);
+        ConnectionPool shard2 = new ConnectionPool(2);
+
+        try {
+            DataSourceRegistry range = new DataSourceRegistry(pool, List.of(shard1, shard2), DataSourceRegistry.ShardStrategy.RANGE, new int[]{100});
+            assertSame(shard1, range.getPool(99));
+            assertSame(shard2, range.getPool(100));
+
+            DataSourceRegistry hash = new DataSourceRegistry(pool, List.of(shard1, shard2), DataSourceRegistry.ShardStrategy.HASH, null);
+            assertSame(shard1, hash.getPool(4));
+            assertSame(shard2, hash.getPool(7));
+            assertTrue(hash.isSharded());
+            assertFalse(DataSourceRegistry.single(pool).isSharded());
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DataSourceRegistry(pool, List.of(shard1, shard2), DataSourceRegistry.ShardStrategy.RANGE, new int[0]));
+
+            // Both shards point at the same database, so a fan-out read sees every row twice
+            int rows = new InventoryDaoImpl(pool).getAll().size();
+            List<InventoryDto> merged = new InventoryDaoImpl(hash).getAll();
+            assertEquals(2 * rows, merged.size());
+            assertTrue(shard1.getMetrics().getBorrowCount() > 0 && shard2.getMetrics().getBorrowCount() > 0,
+                    "Every shard should have been queried");
+
+            // Filtering on the facility reads from that facility's shard only
+            int facilityId = merged.getFirst().getFacilityId();
+            long otherShardBorrows = (hash.getPool(facilityId) == shard1 ? shard2 : shard1).getMetrics().getBorrowCount();
+            assertEquals(new InventoryDaoImpl(pool).getRows("facility_id", facilityId).size(),
+                    new InventoryDaoImpl(hash).getRows("facility_id", facilityId).size());
+            assertEquals(otherShardBorrows, (hash.getPool(facilityId) == shard1 ? shard2 : shard1).getMetrics().getBorrowCount());
+        } finally {
+            shard1.shutdown();
+            shard2.shutdown();
+        }
+    }
 }
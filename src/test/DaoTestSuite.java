@@ -12,6 +12,7 @@ import org.junit.platform.suite.api.Suite;
     AirlineTest.class,
     FlightTest.class,
     BeverageTest.class,
+    VirtualThreadLoadTest.class,
     ShutdownTest.class
 })
 public class DaoTestSuite {}
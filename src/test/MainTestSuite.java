@@ -10,6 +10,7 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectClasses({
     ConnectionPoolTest.class,
+    RowMapperTest.class,
     DaoTestSuite.class
 })
 public class MainTestSuite {}
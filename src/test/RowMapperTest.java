@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.fakeskymeal.dto.BeverageDtoBinder;
+import org.fakeskymeal.dto.BeverageDtoMapper;
+import org.fakeskymeal.dto.MealDtoBinder;
+import org.fakeskymeal.dto.MealDtoMapper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RowMapperTest
+ *
+ * Checks that the mappers and binders generated from the @Mapped DTOs use
+ * the column order of the queries in sql.properties. Needs no database.
+ */
+public class RowMapperTest {
+    private static Properties queries;
+
+    @BeforeAll
+    static void loadQueries() throws IOException {
+        queries = new Properties();
+        try (InputStream in = RowMapperTest.class.getClassLoader().getResourceAsStream("sql.properties")) {
+            queries.load(in);
+        }
+    }
+
+    @Test
+    void testBeverageColumns() {
+        assertEquals("SELECT " + BeverageDtoMapper.COLUMNS + " FROM beverages", queries.getProperty("BEVERAGE_GET_ALL"));
+        assertTrue(queries.getProperty("BEVERAGE_INSERT").contains("(" + BeverageDtoBinder.VALUE_COLUMNS + ")"));
+        assertEquals(BeverageDtoMapper.COLUMNS, selectList("GET_BEVERAGES_FOR_ORDER"));
+    }
+
+    @Test
+    void testMealColumns() {
+        assertEquals("SELECT " + MealDtoMapper.COLUMNS + " FROM meals", queries.getProperty("MEAL_GET_ALL"));
+        assertTrue(queries.getProperty("MEAL_INSERT").contains("(" + MealDtoBinder.VALUE_COLUMNS + ")"));
+        assertEquals(MealDtoMapper.COLUMNS, selectList("GET_MEALS_FOR_ORDER"));
+    }
+
+    /**
+     * selectList
+     *
+     * @param String key - The query in sql.properties.
+     * @return String - The column names the query selects, in order, without table aliases.
+     */
+    private static String selectList(String key) {
+        String query = queries.getProperty(key);
+        List<String> columns = new ArrayList<>();
+        for (String expression : query.substring("SELECT ".length(), query.indexOf(" FROM ")).split(",")) {
+            String column = expression.trim();
+            int alias = column.indexOf(" AS ");
+            column = alias >= 0 ? column.substring(alias + " AS ".length()) : column.substring(column.indexOf('.') + 1);
+            columns.add(column);
+        }
+        return String.join(", ", columns);
+    }
+}
@@ -0,0 +1,77 @@
+import org.fakeskymeal.dao.AirlineDao;
+import org.fakeskymeal.dao.impl.AirlineDaoImpl;
+import org.fakeskymeal.dto.AirlineDto;
+import util.jdbc.ConnectionPool;
+import util.jdbc.ConnectionPoolConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VirtualThreadLoadTest
+ *
+ * Load harness that drives 10,000 virtual threads through DAO calls on a
+ * pool in fair admission mode, to check throughput and that no borrower is
+ * left hanging.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VirtualThreadLoadTest {
+    private static final int VIRTUAL_THREADS = 10_000;
+    private ConnectionPool pool;
+    private AirlineDao airlineDao;
+
+    @BeforeAll
+    void initPool() {
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+        config.setPoolName("VirtualThreadLoadTest");
+        config.setFairAdmission(true);
+        config.setConnectionTimeoutMillis(60_000);
+        pool = new ConnectionPool(config);
+        airlineDao = new AirlineDaoImpl(pool);
+    }
+
+    @AfterAll
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadDaoLoad() {
+        AtomicInteger completed = new AtomicInteger();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        long start = System.nanoTime();
+        assertTimeoutPreemptively(Duration.ofMinutes(2), () -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < VIRTUAL_THREADS; i++) {
+                    executor.submit(() -> {
+                        try {
+                            List<AirlineDto> airlines = airlineDao.getAll();
+                            assertNotNull(airlines);
+                            completed.incrementAndGet();
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        }
+                    });
+                }
+            }
+        }, "Virtual threads did not finish, possible deadlock");
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertTrue(errors.isEmpty(), () -> errors.size() + " DAO calls failed, first: " + errors.getFirst());
+        assertEquals(VIRTUAL_THREADS, completed.get());
+        assertEquals(0, pool.getPendingThreads());
+        assertEquals(0, pool.getActiveConnections());
+        System.out.printf("%d DAO calls on virtual threads in %.2f s (%.0f calls/sec)%n",
+                VIRTUAL_THREADS, seconds, VIRTUAL_THREADS / seconds);
+        System.out.println(pool.getMetrics());
+    }
+}
@@ -0,0 +1,337 @@
+package util.jdbc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConnectionBag
+ *
+ * Lock-free container for the pool entries, modelled after a ConcurrentBag.
+ *
+ * A borrowing thread first tries the entries it released most recently
+ * (thread-local list), then scans the shared list of every entry. Both
+ * paths claim an entry with a CAS on its state, so no lock is taken while
+ * connections are available. Only when the bag is empty does a thread join
+ * the FIFO waiter queue, and released entries are handed directly to the
+ * longest waiter.
+ *
+ * Closing the bag wakes every waiter empty-handed, so borrowers do not sit
+ * out their timeout once the pool is shutting down.
+ *
+ * Virtual threads skip the thread-local list: they are usually created per
+ * request, so the list would never be reused and only cost an allocation.
+ */
+class ConnectionBag {
+    private static final int THREAD_LIST_LIMIT = 16;
+
+    private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PoolEntry>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LIST_LIMIT));
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>(); // guarded by lock
+    private volatile boolean closed = false;
+
+    /**
+     * poll
+     *
+     * Claims an available entry without blocking.
+     *
+     * @return PoolEntry - The claimed entry (state IN_USE), or null if none is available.
+     */
+    PoolEntry poll() {
+        // Most recently released by this thread first
+        if (!Thread.currentThread().isVirtual()) {
+            List<PoolEntry> list = threadList.get();
+            for (int i = list.size() - 1; i >= 0; i--) {
+                PoolEntry entry = list.remove(i);
+                if (entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    return entry;
+                }
+            }
+        }
+
+        return scanShared();
+    }
+
+    /**
+     * await
+     *
+     * Joins the FIFO waiter queue and parks until an entry is handed over,
+     * the deadline passes or the bag is closed.
+     *
+     * @param long deadline - The System.nanoTime() deadline.
+     * @return PoolEntry - The claimed entry (state IN_USE), or null on timeout or close.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    PoolEntry await(long deadline) throws InterruptedException {
+        Waiter waiter = new Waiter(Thread.currentThread());
+        waiting.incrementAndGet();
+        try {
+            lock.lock();
+            try {
+                waiters.addLast(waiter);
+            } finally {
+                lock.unlock();
+            }
+
+            // An entry may have been released between poll() and enqueueing; it would
+            // not have been handed over since nobody was registered as waiting yet.
+            PoolEntry entry = scanShared();
+            if (entry != null) {
+                cancel(waiter);
+                return entry;
+            }
+
+            boolean interrupted = false;
+            while (waiter.entry == null && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                    break;
+                }
+            }
+
+            if (interrupted) {
+                cancel(waiter);
+                throw new InterruptedException();
+            }
+            if (waiter.entry == null) {
+                lock.lock();
+                try {
+                    // A handoff may have raced with the timeout or close; keep it if so
+                    if (waiter.entry == null) {
+                        waiters.remove(waiter);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return waiter.entry;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * requite
+     *
+     * Returns a borrowed entry to the bag. The entry goes to the longest waiter
+     * if there is one, and to the releasing thread's local list otherwise.
+     *
+     * @param PoolEntry entry - The entry being released.
+     */
+    void requite(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+
+        if (waiting.get() > 0 && handoff(entry)) {
+            return;
+        }
+
+        if (!Thread.currentThread().isVirtual()) {
+            List<PoolEntry> list = threadList.get();
+            if (list.size() < THREAD_LIST_LIMIT) {
+                list.add(entry);
+            }
+        }
+    }
+
+    /**
+     * add
+     *
+     * Adds a freshly opened entry to the bag and offers it to any waiter.
+     *
+     * @param PoolEntry entry - The new entry.
+     */
+    void add(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+        sharedList.add(entry);
+        if (waiting.get() > 0) {
+            handoff(entry);
+        }
+    }
+
+    /**
+     * addBorrowed
+     *
+     * Adds a freshly opened entry that the caller keeps for itself.
+     *
+     * @param PoolEntry entry - The new entry.
+     */
+    void addBorrowed(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_IN_USE);
+        sharedList.add(entry);
+    }
+
+    /**
+     * reserve
+     *
+     * Claims an idle entry for the housekeeper so no borrower can take it.
+     *
+     * @param PoolEntry entry - The idle entry.
+     * @return boolean - Whether the entry was idle and is now reserved.
+     */
+    boolean reserve(PoolEntry entry) {
+        return entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_RESERVED);
+    }
+
+    /**
+     * unreserve
+     *
+     * Makes a reserved entry available to borrowers again.
+     *
+     * @param PoolEntry entry - The reserved entry.
+     */
+    void unreserve(PoolEntry entry) {
+        if (entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_NOT_IN_USE) && waiting.get() > 0) {
+            handoff(entry);
+        }
+    }
+
+    /**
+     * remove
+     *
+     * Permanently removes an entry that is borrowed or reserved by the caller.
+     *
+     * @param PoolEntry entry - The entry to remove.
+     * @return boolean - Whether the entry was still part of the bag.
+     */
+    boolean remove(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_REMOVED);
+        return sharedList.remove(entry);
+    }
+
+    /**
+     * close
+     *
+     * Wakes every waiter without an entry. Threads that call await() afterwards
+     * return right away.
+     */
+    void close() {
+        closed = true;
+        lock.lock();
+        try {
+            Waiter waiter;
+            while ((waiter = waiters.pollFirst()) != null) {
+                LockSupport.unpark(waiter.thread);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * values
+     *
+     * @return List - A snapshot of every entry in the bag regardless of state.
+     */
+    List<PoolEntry> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    int size() {
+        return sharedList.size();
+    }
+
+    int getCount(int state) {
+        int count = 0;
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getWaitingCount() {
+        return waiting.get();
+    }
+
+    private PoolEntry scanShared() {
+        for (PoolEntry entry : sharedList) {
+            if (entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * handoff
+     *
+     * Claims an available entry on behalf of the longest waiter and wakes it.
+     *
+     * @param PoolEntry entry - The available entry.
+     * @return boolean - Whether the entry was handed over (or already taken by someone else).
+     */
+    private boolean handoff(PoolEntry entry) {
+        if (!entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+            return true; // a borrower claimed it first
+        }
+
+        lock.lock();
+        try {
+            Waiter waiter = waiters.pollFirst();
+            if (waiter != null) {
+                waiter.entry = entry;
+                LockSupport.unpark(waiter.thread);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+        return false;
+    }
+
+    /**
+     * cancel
+     *
+     * Dequeues a waiter that is giving up. An entry handed over in the meantime
+     * is passed on to the next waiter or put back.
+     *
+     * @param Waiter waiter - The waiter to dequeue.
+     */
+    private void cancel(Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.entry == null) {
+                waiters.remove(waiter);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        PoolEntry raced = waiter.entry;
+        waiter.entry = null;
+        raced.setState(PoolEntry.STATE_NOT_IN_USE);
+        if (waiting.get() > 0) {
+            handoff(raced);
+        }
+    }
+
+    /**
+     * Waiter
+     *
+     * Queue node for a parked borrower. The entry is assigned under the
+     * lock by the releasing thread.
+     */
+    private static final class Waiter {
+        final Thread thread;
+        volatile PoolEntry entry;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
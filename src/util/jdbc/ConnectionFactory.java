@@ -0,0 +1,15 @@
+package util.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * ConnectionFactory
+ *
+ * Opens the physical connections held by a connection pool.
+ * Defaults to JdbcConnection.createConnection().
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+    Connection createConnection() throws SQLException;
+}
@@ -1,80 +1,328 @@
 package util.jdbc;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 /**
  * ConnectionPool
  *
  * The connection pool object for managing JDBC connections
- * to the database.
+ * to the database. The pool grows on demand up to the configured
+ * maximum and a background housekeeper shrinks it back to the
+ * minimum once connections have been idle for too long.
+ *
+ * Connections are kept in a ConnectionBag: a thread gets back the
+ * connection it released most recently without taking any lock, and
+ * threads that find the pool exhausted wait in a FIFO queue for a
+ * direct handoff.
+ *
+ * Connections idle for longer than the validation skip window are checked
+ * with isValid() before being handed out. Broken connections are dropped and
+ * replaced in the background, and the housekeeper pings idle connections
+ * periodically so the server does not close them behind our back.
+ * Connections older than the max lifetime (plus a random jitter) are
+ * replaced in the background, once idle, by a freshly opened connection.
+ *
+ * Borrowers receive a PooledConnection proxy: closing it returns the
+ * connection to the pool. With a leak detection threshold configured, a
+ * connection held longer than the threshold is reported together with
+ * the stack trace of the code that borrowed it.
+ *
+ * The initial connections are opened concurrently on virtual threads; the
+ * constructor returns once the configured number of them is ready and the
+ * rest keep warming up in the background.
+ *
+ * With fair admission enabled, borrowers first take a permit from a fair
+ * semaphore sized to the maximum pool size. Waiting borrowers then queue
+ * in arrival order on the semaphore, parked without holding any monitor,
+ * and at most maxSize threads ever compete for connections. This is the
+ * mode to use when requests run on virtual threads, where tens of
+ * thousands of borrowers can be waiting at once.
+ *
+ * A pool can act as the primary of a set of replica pools: reads asked for
+ * through getReadConnection() go to a replica, while writes and threads that
+ * recently wrote (or hold a PrimarySession) stay on the primary.
+ *
+ * Borrowers ask in a Priority lane. Connections reserved for the CRITICAL
+ * lane are never handed to NORMAL or BULK borrowers, each lane has its own
+ * timeout, and the number of NORMAL and BULK borrowers allowed to wait can
+ * be bounded so that overload is rejected right away instead of queueing.
+ *
+ * Every pool exposes its PoolMetrics through getMetrics() and registers
+ * them as the MBean util.jdbc:type=ConnectionPool,name=poolName.
  */
-public class ConnectionPool {
+public final class ConnectionPool {
     private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
-    private final BlockingQueue<Connection> pool;
-    private final int poolSize;
-    private boolean isShutdown = false;
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private final ConnectionPoolConfig config;
+    private final String poolName;
+    private final PoolMetrics metrics = new PoolMetrics(this);
+    private ObjectName mbeanName;
+    private final ConnectionBag bag = new ConnectionBag();
+    private final Semaphore admission; // null unless fair admission is enabled
+    private final Semaphore sharedLane; // capacity left to NORMAL and BULK, null unless connections are reserved
+    private final AtomicInteger queuedBorrowers = new AtomicInteger(); // waiting NORMAL and BULK borrowers
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor housekeeper;
+    private final ThreadPoolExecutor connectionAdder;
+    private volatile ReplicaRouter replicaRouter; // null unless replicas are attached
+    private volatile boolean isShutdown = false;
 
     public ConnectionPool(int size) {
-        pool = new ArrayBlockingQueue<>(size);
-        poolSize = size;
+        this(ConnectionPoolConfig.fixed(size));
+    }
+
+    public ConnectionPool(ConnectionPoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.poolName = config.getPoolName() != null
+                ? config.getPoolName()
+                : "ConnectionPool-" + POOL_COUNTER.incrementAndGet();
+        this.admission = config.isFairAdmission() ? new Semaphore(config.getMaxSize(), true) : null;
+        this.sharedLane = config.getReservedCritical() > 0
+                ? new Semaphore(config.getMaxSize() - config.getReservedCritical(), config.isFairAdmission())
+                : null;
+
+        // At most one pending fill request is queued; fillPool() loops until the pool is satisfied
+        connectionAdder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1), daemonThreadFactory(poolName + "-connection-adder"),
+                new ThreadPoolExecutor.DiscardPolicy());
+
+        housekeeper = new ScheduledThreadPoolExecutor(1, daemonThreadFactory(poolName + "-housekeeper"));
+        housekeeper.setRemoveOnCancelPolicy(true); // leak detection tasks are mostly cancelled
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.getHousekeepingIntervalMillis(),
+                config.getHousekeepingIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+
+        // Warm-up threads use the pool, so every field has to be assigned first
+        warmUp();
+        registerMBean();
+    }
+
+    /**
+     * warmUp
+     *
+     * Opens the minimum number of connections concurrently, one virtual thread each,
+     * and blocks until minReady of them are in the pool. Connections still being
+     * opened when this returns are added in the background as they complete.
+     *
+     * @throws RuntimeException If fewer than minReady connections could be opened.
+     */
+    private void warmUp() {
+        final int target = config.getMinSize();
+        final int ready = config.getMinReady();
+        if (target == 0) {
+            return;
+        }
+
+        CountDownLatch readyLatch = new CountDownLatch(ready);
+        CountDownLatch finished = new CountDownLatch(target);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<SQLException> firstFailure = new AtomicReference<>();
+
+        ExecutorService warmup = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < target; i++) {
+            totalConnections.incrementAndGet();
+            warmup.execute(() -> {
+                try {
+                    PoolEntry entry = openReserved();
+                    if (isShutdown) {
+                        totalConnections.decrementAndGet();
+                        closeConnection(entry);
+                        return;
+                    }
+                    bag.add(entry);
+                    readyLatch.countDown();
+                } catch (SQLException e) {
+                    firstFailure.compareAndSet(null, e);
+                    if (failures.incrementAndGet() > target - ready) {
+                        // minReady can no longer be reached, release the constructor
+                        while (readyLatch.getCount() > 0) {
+                            readyLatch.countDown();
+                        }
+                    } else {
+                        LOGGER.warning("Failed to open a connection during warm-up: " + e.getMessage());
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        warmup.shutdown(); // already submitted connections keep opening
+
         try {
-            for (int i = 0; i < size; i++) {
-                pool.put(JdbcConnection.createConnection());
-            }
-            System.out.println("Connection pool initialized with " + size + " connections.");
-        } catch (SQLException | InterruptedException e) {
-            LOGGER.log(Level.SEVERE, "Failed to instantiate connection pool", e);
-            throw new RuntimeException("Unable to initialize connection pool", e);
+            readyLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.set(target);
+            firstFailure.compareAndSet(null, new SQLException("Interrupted during pool warm-up", e));
+        }
+
+        if (failures.get() > target - ready) {
+            LOGGER.log(Level.SEVERE, "Failed to instantiate connection pool", firstFailure.get());
+            isShutdown = true;
+            housekeeper.shutdownNow();
+            connectionAdder.shutdownNow();
+            awaitQuietly(finished);
+            closeAll();
+            throw new RuntimeException("Unable to initialize connection pool", firstFailure.get());
+        }
+
+        System.out.println("Connection pool initialized with " + bag.size()
+                + " of " + target + " connections ready (max " + config.getMaxSize() + ").");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
      * getConnection
      *
-     * Method overload getConnection method with a default timeout.
+     * Method overload getConnection method with the configured default timeout.
      *
      * @return Connection - The JDBC connection.
      * @throws SQLException Any exceptions that occur with JDBC connection.
      */
     public Connection getConnection() throws SQLException {
-        return getConnection(3000); // Default timeout of 3 seconds
+        return getConnection(Priority.NORMAL);
     }
 
     /**
      * getConnection
      *
-     * Acquire a JDBC connection to the database with a defined timeout duration.
+     * Method overload getConnection method with the timeout configured for the lane.
+     *
+     * @param Priority priority - The lane to borrow in.
+     * @return Connection - The JDBC connection.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getConnection(Priority priority) throws SQLException {
+        return getConnection(priority, config.getConnectionTimeoutMillis(priority));
+    }
+
+    /**
+     * getConnection
+     *
+     * Method overload getConnection method in the NORMAL lane.
      *
      * @param long timeoutMillis - The set timeout to wait for an available connection.
      * @return Connection - The JDBC connection.
      * @throws SQLException Any exceptions that occur with JDBC connection.
      */
     public Connection getConnection(long timeoutMillis) throws SQLException {
+        return getConnection(Priority.NORMAL, timeoutMillis);
+    }
+
+    /**
+     * getConnection
+     *
+     * Acquire a JDBC connection to the database with a defined timeout duration.
+     * The returned connection is a proxy; close it (or pass it to releaseConnection)
+     * to give it back to the pool. An idle connection is preferred (the one this thread released last, if still
+     * free); otherwise the pool opens a new one as long as it is below its maximum
+     * size. When the pool is exhausted the caller waits in FIFO order until a
+     * connection is handed to it or the timeout elapses.
+     *
+     * Connections that fail validation are discarded, replaced in the background,
+     * and the borrow is retried within the same timeout.
+     *
+     * NORMAL and BULK borrowers cannot use the connections reserved for the
+     * CRITICAL lane, and are rejected right away instead of waiting when the
+     * configured number of them is already waiting.
+     *
+     * @param Priority priority - The lane to borrow in.
+     * @param long timeoutMillis - The set timeout to wait for an available connection.
+     * @return Connection - The JDBC connection.
+     * @throws SQLTransientConnectionException If the wait queue is full.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getConnection(Priority priority, long timeoutMillis) throws SQLException {
         if (isShutdown) {
             throw new IllegalStateException("Connection pool is already shut down");
         }
 
-        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
 
+        Semaphore lane = priority == Priority.CRITICAL ? null : sharedLane;
+        boolean laneAcquired = false;
+        boolean admitted = false;
         try {
-            while (true) {
-                long remaining = deadline - System.currentTimeMillis();
-                if (remaining <= 0) {
-                    throw new SQLException("Timeout while waiting for a database connection");
-                }
+            if (lane != null) {
+                acquire(lane, priority, deadline);
+                laneAcquired = true;
+            }
+            if (admission != null) {
+                acquire(admission, priority, deadline);
+                admitted = true;
+            }
+            return borrow(priority, start, deadline);
+        } catch (SQLException | RuntimeException ex) {
+            if (admitted) {
+                admission.release();
+            }
+            if (laneAcquired) {
+                lane.release();
+            }
+            throw ex;
+        }
+    }
 
-                Connection conn = pool.poll(Math.min(remaining, 100), TimeUnit.MILLISECONDS);
-                if (conn != null) {
-                    return conn;
-                }
+    /**
+     * acquire
+     *
+     * Takes a permit, waiting in the semaphore's queue if none is free.
+     *
+     * @param Semaphore permits - The semaphore to take a permit from.
+     * @param Priority priority - The borrower's lane.
+     * @param long deadline - The System.nanoTime() deadline.
+     * @throws SQLException On timeout, interruption or a full wait queue.
+     */
+    private void acquire(Semaphore permits, Priority priority, long deadline) throws SQLException {
+        try {
+            // A zero timeout, unlike tryAcquire(), respects the fairness of the semaphore
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
 
-                Thread.yield();
+            enqueue(priority);
+            try {
+                if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    metrics.recordTimeout();
+                    throw new SQLException("Timeout while waiting for a database connection");
+                }
+            } finally {
+                dequeue(priority);
             }
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
@@ -82,57 +330,788 @@ public class ConnectionPool {
         }
     }
 
+    /**
+     * enqueue
+     *
+     * Counts a NORMAL or BULK borrower that is about to wait, rejecting it if
+     * the wait queue is full. CRITICAL borrowers are not counted.
+     *
+     * @param Priority priority - The borrower's lane.
+     * @throws SQLTransientConnectionException If the wait queue is full.
+     */
+    private void enqueue(Priority priority) throws SQLTransientConnectionException {
+        int maxWaiting = config.getMaxWaiting();
+        if (priority == Priority.CRITICAL || maxWaiting < 0) {
+            return;
+        }
+        if (queuedBorrowers.incrementAndGet() > maxWaiting) {
+            queuedBorrowers.decrementAndGet();
+            metrics.recordRejection();
+            throw new SQLTransientConnectionException("Connection pool is overloaded, "
+                    + maxWaiting + " borrowers are already waiting");
+        }
+    }
+
+    private void dequeue(Priority priority) {
+        if (priority != Priority.CRITICAL && config.getMaxWaiting() >= 0) {
+            queuedBorrowers.decrementAndGet();
+        }
+    }
+
+    /**
+     * borrow
+     *
+     * Takes a connection from the bag, opens a new one if the pool may grow,
+     * or waits for one to be released.
+     *
+     * @param Priority priority - The borrower's lane.
+     * @param long start - The System.nanoTime() at which the caller asked for a connection.
+     * @param long deadline - The System.nanoTime() deadline.
+     * @return Connection - The pooled connection proxy.
+     * @throws SQLException On timeout, interruption or failure to open a connection.
+     */
+    private Connection borrow(Priority priority, long start, long deadline) throws SQLException {
+        while (true) {
+            if (isShutdown) {
+                throw new SQLException("Connection pool is shut down");
+            }
+            PoolEntry entry = bag.poll();
+            if (entry == null) {
+                entry = tryGrow();
+                if (entry != null) {
+                    return lend(entry, priority, start); // freshly opened, no need to validate
+                }
+            }
+            if (entry == null) {
+                enqueue(priority);
+                try {
+                    entry = bag.await(deadline);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", ex);
+                } finally {
+                    dequeue(priority);
+                }
+            }
+            if (entry == null && isShutdown) {
+                throw new SQLException("Connection pool is shut down");
+            }
+            if (entry == null) {
+                metrics.recordTimeout();
+                throw new SQLException("Timeout while waiting for a database connection");
+            }
+
+            if (isAlive(entry)) {
+                return lend(entry, priority, start);
+            }
+
+            LOGGER.warning("Discarding broken connection " + entry.connection);
+            discard(entry);
+            requestFill();
+        }
+    }
+
+    /**
+     * getReadConnection
+     *
+     * Returns a connection for read-only work. With replicas attached this is a
+     * replica connection, unless the calling thread wrote through the primary
+     * within the read-after-write window or holds a PrimarySession.
+     *
+     * @return Connection - The JDBC connection.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getReadConnection(Priority.NORMAL);
+    }
+
+    /**
+     * getReadConnection
+     *
+     * Method overload getReadConnection method in the given lane.
+     *
+     * @param Priority priority - The lane to borrow in.
+     * @return Connection - The JDBC connection.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getReadConnection(Priority priority) throws SQLException {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getReadConnection(priority) : getConnection(priority);
+    }
+
+    /**
+     * getWriteConnection
+     *
+     * Returns a primary connection for writing and pins the reads of the calling
+     * thread to the primary for the read-after-write window.
+     *
+     * @return Connection - The JDBC connection.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return getWriteConnection(Priority.NORMAL);
+    }
+
+    /**
+     * getWriteConnection
+     *
+     * Method overload getWriteConnection method in the given lane.
+     *
+     * @param Priority priority - The lane to borrow in.
+     * @return Connection - The JDBC connection.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public Connection getWriteConnection(Priority priority) throws SQLException {
+        ReplicaRouter router = replicaRouter;
+        if (router != null) {
+            router.markWrite();
+        }
+        return getConnection(priority);
+    }
+
+    /**
+     * pinToPrimary
+     *
+     * Routes every read of the calling thread to the primary until the returned
+     * session is closed.
+     *
+     * @return PrimarySession - The session to close when done.
+     */
+    public PrimarySession pinToPrimary() {
+        return new PrimarySession(replicaRouter);
+    }
+
+    /**
+     * isReadPinnedToPrimary
+     *
+     * Tells whether getReadConnection() on the calling thread goes to the
+     * primary, because of a recent write or an open PrimarySession. Work handed
+     * to other threads has to carry this decision over, as the routing state
+     * is per thread.
+     *
+     * @return boolean - True if reads of the calling thread use the primary.
+     */
+    public boolean isReadPinnedToPrimary() {
+        ReplicaRouter router = replicaRouter;
+        return router == null || router.isPinned();
+    }
+
+    /**
+     * setReplicas
+     *
+     * Attaches replica pools to this (primary) pool. Replicas are selected with
+     * the configured replica selection strategy and are shut down together with
+     * this pool.
+     *
+     * @param List replicas - The replica pools, empty to detach all replicas.
+     */
+    public void setReplicas(List<ConnectionPool> replicas) {
+        replicaRouter = replicas.isEmpty() ? null : new ReplicaRouter(this, replicas);
+    }
+
+    /**
+     * getReplicas
+     *
+     * @return List - The attached replica pools.
+     */
+    public List<ConnectionPool> getReplicas() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getReplicas() : List.of();
+    }
+
     /**
      * releaseConnection
      *
      * Returns the acquired JDBC connection back to the pool and does not close it.
+     * Equivalent to closing the connection returned by getConnection.
      *
      * @param Connection conn - The JDBC connection to be released back to the pool.
      */
     public void releaseConnection(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+
+        if (!(conn instanceof PooledConnection proxy) || proxy.entry.pool != this) {
+            LOGGER.warning("Attempted to release a connection that does not belong to this pool");
+            return;
+        }
+
+        try {
+            proxy.close();
+        } catch (SQLException e) {
+            LOGGER.warning("Failed to release connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * recycle
+     *
+     * Called by PooledConnection.close(). If threads are waiting, the connection
+     * is handed directly to the longest waiter. Connection properties the borrower
+     * changed are reset first. Connections that were closed underneath the proxy,
+     * or cannot be reset, are dropped from the pool and replaced in the background.
+     *
+     * @param PooledConnection proxy - The proxy being closed.
+     */
+    void recycle(PooledConnection proxy) {
+        metrics.recordHold(System.nanoTime() - proxy.borrowedAt);
+        if (proxy.leakTask != null) {
+            proxy.leakTask.cancel(false);
+            if (proxy.leakReported) {
+                LOGGER.info("Previously reported leaked connection " + proxy.delegate + " was returned after "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - proxy.borrowedAt) + " ms");
+            }
+        }
+
+        PoolEntry entry = proxy.entry;
+        boolean broken;
         try {
-            if (conn != null && !conn.isClosed()) {
-                pool.put(conn);
+            broken = entry.connection.isClosed();
+            if (!broken) {
+                proxy.resetState();
             }
-        } catch (SQLException | InterruptedException e) {
+        } catch (SQLException e) {
             LOGGER.warning("Failed to release connection, closing it: " + e.getMessage());
-            try {
-                conn.close(); // fail-safe close
-            } catch (SQLException se) {
-                LOGGER.warning("Also failed to close connection: " + se.getMessage());
+            broken = true;
+        }
+
+        if (broken) {
+            discard(entry); // fail-safe close
+            requestFill();
+        } else if (isShutdown) {
+            discard(entry); // draining
+        } else {
+            entry.lastAccessed = System.currentTimeMillis();
+            if (entry.lastAccessed >= entry.retireAt) {
+                // Past its lifetime: keep it from borrowers and replace it in the background
+                entry.setState(PoolEntry.STATE_RESERVED);
+                scheduleRotation(entry);
+            } else {
+                bag.requite(entry);
             }
-        } // finally will unintentionally close it from pool, so it's not necessary
+        }
+
+        if (admission != null) {
+            admission.release();
+        }
+        if (sharedLane != null && proxy.priority != Priority.CRITICAL) {
+            sharedLane.release();
+        }
     }
 
     /**
      * shutdown
      *
-     * Shutdown the connection pool.
-     * It closes all the connection within the pool.
+     * Shutdown the connection pool immediately.
+     * It stops the housekeeper and closes all the connections within the pool,
+     * including the ones still borrowed. Use drain() to let borrowers finish first.
      */
     public void shutdown() {
-        Connection conn;
-        while ((conn = pool.poll()) != null) {
-            try {
-                conn.close();
-            } catch (SQLException ex) {
-                LOGGER.warning("Failed to close DB connection: " + ex.getMessage());
-            }
+        drain(0);
+    }
+
+    /**
+     * drain
+     *
+     * Gracefully shuts the pool down. New borrows are refused right away, waiting
+     * borrowers fail with a SQLException, idle connections are closed, and
+     * connections returned from now on are closed
+     * instead of reused. Once every borrowed connection is back, or the timeout
+     * elapses, the remaining ones are closed underneath their borrowers.
+     * Replica pools are drained within the same deadline. Draining a pool that is
+     * already shut down does nothing.
+     *
+     * @param long timeoutMillis - How long to wait for borrowed connections to be returned.
+     * @return int - The number of borrowed connections that had to be force-closed.
+     */
+    public synchronized int drain(long timeoutMillis) {
+        if (isShutdown) {
+            return 0;
         }
         isShutdown = true;
-        System.out.println("Connection pool shut down successfully.");
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        housekeeper.shutdownNow();
+        connectionAdder.shutdownNow();
+        closeAll();
+
+        // Wake the borrowers that are waiting so they fail now instead of at their timeout.
+        // Borrowers parked on a semaphore get a permit and fail in borrow().
+        bag.close();
+        if (sharedLane != null) {
+            sharedLane.release(config.getMaxSize());
+        }
+        if (admission != null) {
+            admission.release(config.getMaxSize());
+        }
+
+        while (bag.size() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(this, DRAIN_POLL_NANOS);
+        }
+
+        int forceClosed = 0;
+        for (PoolEntry entry : bag.values()) {
+            if (entry.getState() == PoolEntry.STATE_IN_USE) {
+                LOGGER.warning("Force-closing connection " + entry.connection + " still borrowed after drain timeout");
+                forceClosed++;
+            }
+            discard(entry);
+        }
+        unregisterMBean();
+
+        for (ConnectionPool replica : getReplicas()) {
+            forceClosed += replica.drain(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        LOGGER.info("Connection pool " + poolName + " shut down (" + forceClosed + " connection(s) force-closed).");
+        return forceClosed;
     }
 
+    /**
+     * getSize
+     *
+     * @return int - The maximum number of connections the pool can hold.
+     */
     public int getSize() {
-        return poolSize;
+        return config.getMaxSize();
+    }
+
+    /**
+     * getTotalConnections
+     *
+     * @return int - The number of connections currently opened by the pool (idle and borrowed).
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * getActiveConnections
+     *
+     * @return int - The number of connections currently borrowed.
+     */
+    public int getActiveConnections() {
+        return bag.getCount(PoolEntry.STATE_IN_USE);
+    }
+
+    /**
+     * getIdleConnections
+     *
+     * @return int - The number of connections currently waiting in the pool.
+     */
+    public int getIdleConnections() {
+        return bag.getCount(PoolEntry.STATE_NOT_IN_USE);
+    }
+
+    /**
+     * getPendingThreads
+     *
+     * @return int - The number of threads currently waiting for a connection.
+     */
+    public int getPendingThreads() {
+        return bag.getWaitingCount()
+                + (admission != null ? admission.getQueueLength() : 0)
+                + (sharedLane != null ? sharedLane.getQueueLength() : 0);
+    }
+
+    public ConnectionPoolConfig getConfig() {
+        return config;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * getMetrics
+     *
+     * @return PoolMetrics - Live gauges, counters and latency histograms of this pool.
+     */
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * tryGrow
+     *
+     * Opens a new connection for the caller if the pool is below its maximum size.
+     *
+     * @return PoolEntry - The new borrowed entry, or null if the pool is already at capacity.
+     * @throws SQLException Any exceptions that occur when opening the connection.
+     */
+    private PoolEntry tryGrow() throws SQLException {
+        if (!reserveSlot()) {
+            return null;
+        }
+
+        PoolEntry entry = openReserved();
+        bag.addBorrowed(entry);
+        return entry;
+    }
+
+    /**
+     * lend
+     *
+     * Wraps a claimed entry in a new proxy and arms leak detection.
+     *
+     * @param PoolEntry entry - The entry claimed by the caller.
+     * @param long start - The System.nanoTime() at which the caller asked for a connection.
+     * @return Connection - The proxy handed to the caller.
+     */
+    private Connection lend(PoolEntry entry, Priority priority, long start) {
+        PooledConnection proxy = new PooledConnection(this, entry, priority);
+        metrics.recordWait(proxy.borrowedAt - start);
+
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold > 0) {
+            proxy.borrowTrace = new Exception("Apparent connection leak detected");
+            proxy.leakTask = housekeeper.schedule(() -> reportLeak(proxy), threshold, TimeUnit.MILLISECONDS);
+        }
+        return proxy;
     }
 
-    public void dumpPool(String message) {
-        System.out.println("\n====================");
-        System.out.println(message);
-        for (Connection connection : pool) {
-            System.out.println(connection);
+    private void reportLeak(PooledConnection proxy) {
+        proxy.leakReported = true;
+        LOGGER.log(Level.WARNING, "Connection " + proxy.delegate + " has been held for more than "
+                + config.getLeakDetectionThresholdMillis() + " ms, possible leak. Borrowed at:", proxy.borrowTrace);
+    }
+
+    /**
+     * isAlive
+     *
+     * Validates a borrowed connection unless it was used or kept alive within
+     * the validation skip window.
+     *
+     * @param PoolEntry entry - The borrowed entry.
+     * @return boolean - Whether the connection can be handed out.
+     */
+    private boolean isAlive(PoolEntry entry) {
+        if (System.currentTimeMillis() - entry.getLastActivity() < config.getValidationSkipWindowMillis()) {
+            return true;
+        }
+
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private int validationTimeoutSeconds() {
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getValidationTimeoutMillis()));
+    }
+
+    /**
+     * requestFill
+     *
+     * Asks the background connection adder to top up the pool.
+     */
+    private void requestFill() {
+        if (!isShutdown) {
+            connectionAdder.execute(this::fillPool);
+        }
+    }
+
+    /**
+     * fillPool
+     *
+     * Opens connections through JdbcConnection (or the configured factory) until
+     * the pool is back at its minimum size and no thread is left waiting, without
+     * exceeding the maximum size. Runs on the connection adder thread.
+     */
+    private void fillPool() {
+        while (!isShutdown
+                && (totalConnections.get() < config.getMinSize() || bag.getWaitingCount() > 0)
+                && reserveSlot()) {
+            try {
+                bag.add(openReserved());
+            } catch (SQLException e) {
+                LOGGER.warning("Failed to open a replacement connection: " + e.getMessage());
+                return; // retried on the next housekeeping run
+            }
+        }
+    }
+
+    /**
+     * reserveSlot
+     *
+     * Claims room for one more connection without exceeding the maximum size.
+     * A pool that is shutting down does not grow.
+     *
+     * @return boolean - Whether a slot was reserved.
+     */
+    private boolean reserveSlot() {
+        while (!isShutdown) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * openReserved
+     *
+     * Opens a new connection for a slot already reserved in totalConnections,
+     * giving the slot back if the connection cannot be opened.
+     *
+     * @return PoolEntry - The new entry.
+     * @throws SQLException Any exceptions that occur when opening the connection.
+     */
+    private PoolEntry openReserved() throws SQLException {
+        try {
+            return createEntry();
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * createEntry
+     *
+     * Opens a physical connection and registers it with the pool.
+     *
+     * @return PoolEntry - The registered entry.
+     * @throws SQLException Any exceptions that occur when opening the connection.
+     */
+    private PoolEntry createEntry() throws SQLException {
+        Connection connection = config.getConnectionFactory().createConnection();
+        StatementCache statementCache = config.getStatementCacheSize() > 0
+                ? new StatementCache(config.getStatementCacheSize(), metrics)
+                : null;
+        PoolEntry entry = new PoolEntry(this, connection, statementCache);
+        if (config.getMaxLifetimeMillis() > 0) {
+            // Jitter spreads the retirement of connections opened together
+            entry.retireAt = entry.createdAt + config.getMaxLifetimeMillis()
+                    + ThreadLocalRandom.current().nextLong(config.getMaxLifetimeJitterMillis() + 1);
+        }
+        metrics.recordConnectionCreated();
+        return entry;
+    }
+
+    /**
+     * housekeep
+     *
+     * Periodic maintenance: evict idle connections above the minimum, ping the
+     * remaining idle ones and top the pool back up to its minimum.
+     */
+    private void housekeep() {
+        try {
+            evictIdleConnections();
+            retireExpiredConnections();
+            keepalive();
+            if (totalConnections.get() < config.getMinSize()) {
+                requestFill();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * keepalive
+     *
+     * Validates idle connections that have not been used for a keepalive interval,
+     * so the database does not drop them during quiet periods. Dead ones are replaced.
+     */
+    private void keepalive() {
+        if (config.getKeepaliveIntervalMillis() == 0) {
+            return;
+        }
+
+        for (PoolEntry entry : bag.values()) {
+            if (System.currentTimeMillis() - entry.getLastActivity() < config.getKeepaliveIntervalMillis()
+                    || !bag.reserve(entry)) {
+                continue;
+            }
+
+            boolean alive;
+            try {
+                alive = entry.connection.isValid(validationTimeoutSeconds());
+            } catch (SQLException e) {
+                alive = false;
+            }
+
+            if (alive) {
+                entry.lastKeepalive = System.currentTimeMillis();
+                bag.unreserve(entry);
+            } else {
+                LOGGER.warning("Keepalive found broken connection " + entry.connection + ", replacing it");
+                discard(entry);
+                requestFill();
+            }
+        }
+    }
+
+    /**
+     * retireExpiredConnections
+     *
+     * Replaces idle connections that have outlived their max lifetime. Borrowed
+     * ones are left alone and replaced when they are returned (see recycle).
+     */
+    private void retireExpiredConnections() {
+        if (config.getMaxLifetimeMillis() == 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (PoolEntry entry : bag.values()) {
+            if (now >= entry.retireAt && bag.reserve(entry)) {
+                rotate(entry);
+            }
+        }
+    }
+
+    private void scheduleRotation(PoolEntry entry) {
+        try {
+            housekeeper.execute(() -> rotate(entry));
+        } catch (RejectedExecutionException e) {
+            discard(entry); // pool is shutting down
+        }
+    }
+
+    /**
+     * rotate
+     *
+     * Replaces a reserved connection that reached its max lifetime. The
+     * replacement is opened first and takes over the slot of the old connection,
+     * so the pool never dips below its size and borrowers never pay for the
+     * reconnect. If the replacement cannot be opened the old connection is kept
+     * and retired on a later attempt.
+     *
+     * @param PoolEntry entry - The expired entry, reserved by the caller.
+     */
+    private void rotate(PoolEntry entry) {
+        PoolEntry replacement;
+        try {
+            replacement = createEntry();
+        } catch (SQLException e) {
+            LOGGER.warning("Failed to open a replacement for expired connection " + entry.connection
+                    + ", keeping it for now: " + e.getMessage());
+            bag.unreserve(entry);
+            return;
+        }
+
+        bag.remove(entry);
+        closeConnection(entry);
+        if (isShutdown) {
+            totalConnections.decrementAndGet();
+            closeConnection(replacement);
+            return;
+        }
+        bag.add(replacement);
+        LOGGER.fine("Retired connection " + entry.connection + " after "
+                + (System.currentTimeMillis() - entry.createdAt) + " ms, replaced by " + replacement.connection);
+    }
+
+    /**
+     * evictIdleConnections
+     *
+     * Housekeeping task that closes connections idle for longer than the
+     * configured idle timeout, never shrinking the pool below its minimum.
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+
+        for (PoolEntry entry : bag.values()) {
+            if (totalConnections.get() <= config.getMinSize()) {
+                break;
+            }
+            if (now - entry.lastAccessed < config.getIdleTimeoutMillis() || !bag.reserve(entry)) {
+                continue;
+            }
+
+            int current = totalConnections.get();
+            if (current > config.getMinSize() && totalConnections.compareAndSet(current, current - 1)) {
+                bag.remove(entry);
+                closeConnection(entry);
+                evicted++;
+            } else {
+                bag.unreserve(entry);
+            }
+        }
+
+        if (evicted > 0) {
+            LOGGER.fine("Evicted " + evicted + " idle connection(s), pool size is now " + totalConnections.get());
+        }
+    }
+
+    /**
+     * discard
+     *
+     * Removes a borrowed connection from the pool permanently and closes it.
+     *
+     * @param PoolEntry entry - The entry to remove.
+     */
+    private void discard(PoolEntry entry) {
+        if (bag.remove(entry)) {
+            totalConnections.decrementAndGet();
+        }
+        closeConnection(entry);
+    }
+
+    /**
+     * closeAll
+     *
+     * Closes every idle connection in the pool.
+     */
+    private void closeAll() {
+        List<PoolEntry> all = bag.values();
+        for (PoolEntry entry : all) {
+            if (bag.reserve(entry)) {
+                discard(entry);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private void closeConnection(PoolEntry entry) {
+        metrics.recordConnectionDestroyed();
+        if (entry.statementCache != null) {
+            entry.statementCache.close(); // before the connection, while the driver can still free server-side statements
+        }
+        try {
+            if (!entry.connection.isClosed()) {
+                entry.connection.close();
+            }
+        } catch (SQLException ex) {
+            LOGGER.warning("Failed to close DB connection: " + ex.getMessage());
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("util.jdbc:type=ConnectionPool,name=" + ObjectName.quote(poolName));
+            server.registerMBean(metrics, name);
+            mbeanName = name;
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Failed to register pool MBean for " + poolName, e);
+        }
+    }
+
+    private void unregisterMBean() {
+        if (mbeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException e) {
+            LOGGER.log(Level.FINE, "Failed to unregister pool MBean for " + poolName, e);
         }
-        System.out.println("====================\n");
+        mbeanName = null;
     }
 }
@@ -0,0 +1,400 @@
+package util.jdbc;
+
+import java.util.Properties;
+
+/**
+ * ConnectionPoolConfig
+ *
+ * Sizing policy for the connection pool. The pool keeps at least
+ * minSize connections open, grows on demand up to maxSize, and the
+ * housekeeper shrinks it back to minSize once connections sit idle
+ * longer than idleTimeoutMillis.
+ */
+public class ConnectionPoolConfig {
+    // Environment keys (read from the .env file)
+    public static final String NAME_KEY = "POOL_NAME";
+    public static final String MIN_SIZE_KEY = "POOL_MIN_SIZE";
+    public static final String MAX_SIZE_KEY = "POOL_MAX_SIZE";
+    public static final String MIN_READY_KEY = "POOL_MIN_READY";
+    public static final String IDLE_TIMEOUT_KEY = "POOL_IDLE_TIMEOUT_MS";
+    public static final String HOUSEKEEPING_INTERVAL_KEY = "POOL_HOUSEKEEPING_INTERVAL_MS";
+    public static final String CONNECTION_TIMEOUT_KEY = "POOL_CONNECTION_TIMEOUT_MS";
+    public static final String VALIDATION_TIMEOUT_KEY = "POOL_VALIDATION_TIMEOUT_MS";
+    public static final String VALIDATION_SKIP_WINDOW_KEY = "POOL_VALIDATION_SKIP_WINDOW_MS";
+    public static final String KEEPALIVE_INTERVAL_KEY = "POOL_KEEPALIVE_INTERVAL_MS";
+    public static final String LEAK_DETECTION_THRESHOLD_KEY = "POOL_LEAK_DETECTION_THRESHOLD_MS";
+    public static final String STATEMENT_CACHE_SIZE_KEY = "POOL_STATEMENT_CACHE_SIZE";
+    public static final String FAIR_ADMISSION_KEY = "POOL_FAIR_ADMISSION";
+    public static final String REPLICA_SELECTION_KEY = "POOL_REPLICA_SELECTION";
+    public static final String READ_AFTER_WRITE_KEY = "POOL_READ_AFTER_WRITE_MS";
+    public static final String MAX_LIFETIME_KEY = "POOL_MAX_LIFETIME_MS";
+    public static final String MAX_LIFETIME_JITTER_KEY = "POOL_MAX_LIFETIME_JITTER_MS";
+    public static final String DRAIN_TIMEOUT_KEY = "POOL_DRAIN_TIMEOUT_MS";
+    public static final String RESERVED_CRITICAL_KEY = "POOL_RESERVED_CRITICAL";
+    public static final String MAX_WAITING_KEY = "POOL_MAX_WAITING";
+    public static final String CRITICAL_TIMEOUT_KEY = "POOL_CRITICAL_TIMEOUT_MS";
+    public static final String BULK_TIMEOUT_KEY = "POOL_BULK_TIMEOUT_MS";
+
+    /**
+     * ReplicaSelection
+     *
+     * How reads are spread over the replica pools.
+     */
+    public enum ReplicaSelection {
+        ROUND_ROBIN,
+        LEAST_BUSY
+    }
+
+
+    private String poolName; // defaults to ConnectionPool-<n>
+    private int minSize = 3;
+    private int maxSize = 10;
+    private int minReady = -1; // -1 waits for all minSize connections
+    private long idleTimeoutMillis = 600_000; // 10 minutes
+    private long housekeepingIntervalMillis = 30_000;
+    private long connectionTimeoutMillis = 3000;
+    private long validationTimeoutMillis = 2000;
+    private long validationSkipWindowMillis = 500; // connections used this recently are not re-validated
+    private long keepaliveIntervalMillis = 120_000; // 0 disables keepalive
+    private long leakDetectionThresholdMillis = 0; // 0 disables leak detection
+    private int statementCacheSize = 64; // per connection, 0 disables statement caching
+    private boolean fairAdmission = false; // FIFO semaphore in front of the pool, for virtual threads
+    private ReplicaSelection replicaSelection = ReplicaSelection.ROUND_ROBIN;
+    private long readAfterWriteMillis = 2000; // reads stay on the primary this long after a write
+    private long maxLifetimeMillis = 1_800_000; // 30 minutes, 0 keeps connections forever
+    private long maxLifetimeJitterMillis = 180_000; // up to this much is added to each connection's lifetime
+    private long drainTimeoutMillis = 10_000; // wait for borrowed connections on shutdown
+    private int reservedCritical = 0; // connections only CRITICAL borrowers may use
+    private int maxWaiting = -1; // NORMAL and BULK borrowers allowed to wait, -1 for no bound
+    private long criticalTimeoutMillis = -1; // -1 uses connectionTimeoutMillis
+    private long bulkTimeoutMillis = -1; // -1 uses connectionTimeoutMillis
+    private ConnectionFactory connectionFactory = JdbcConnection::createConnection;
+
+    public ConnectionPoolConfig() {
+        // STUB
+    }
+
+    /**
+     * fixed
+     *
+     * Creates a configuration for a pool that never grows nor shrinks.
+     *
+     * @param int size - The number of connections held by the pool.
+     * @return ConnectionPoolConfig - The fixed-size configuration.
+     */
+    public static ConnectionPoolConfig fixed(int size) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(size);
+        config.setMaxSize(size);
+        return config;
+    }
+
+    /**
+     * fromEnvironment
+     *
+     * Creates a configuration from the pool keys of the .env file.
+     * Missing keys fall back to the defaults.
+     *
+     * @return ConnectionPoolConfig - The configuration loaded from the environment.
+     */
+    public static ConnectionPoolConfig fromEnvironment() {
+        return fromProperties(JdbcConnection.getProperties());
+    }
+
+    /**
+     * fromProperties
+     *
+     * Creates a configuration from the given properties. Missing keys fall
+     * back to the defaults.
+     *
+     * @param Properties props - The source properties.
+     * @return ConnectionPoolConfig - The loaded configuration.
+     */
+    public static ConnectionPoolConfig fromProperties(Properties props) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setPoolName(props.getProperty(NAME_KEY));
+        config.setMinSize(Integer.parseInt(props.getProperty(MIN_SIZE_KEY, String.valueOf(config.minSize)).trim()));
+        config.setMaxSize(Integer.parseInt(props.getProperty(MAX_SIZE_KEY, String.valueOf(config.maxSize)).trim()));
+        config.setMinReady(Integer.parseInt(props.getProperty(MIN_READY_KEY, String.valueOf(config.minReady)).trim()));
+        config.setIdleTimeoutMillis(Long.parseLong(props.getProperty(IDLE_TIMEOUT_KEY, String.valueOf(config.idleTimeoutMillis)).trim()));
+        config.setHousekeepingIntervalMillis(Long.parseLong(props.getProperty(HOUSEKEEPING_INTERVAL_KEY, String.valueOf(config.housekeepingIntervalMillis)).trim()));
+        config.setConnectionTimeoutMillis(Long.parseLong(props.getProperty(CONNECTION_TIMEOUT_KEY, String.valueOf(config.connectionTimeoutMillis)).trim()));
+        config.setValidationTimeoutMillis(Long.parseLong(props.getProperty(VALIDATION_TIMEOUT_KEY, String.valueOf(config.validationTimeoutMillis)).trim()));
+        config.setValidationSkipWindowMillis(Long.parseLong(props.getProperty(VALIDATION_SKIP_WINDOW_KEY, String.valueOf(config.validationSkipWindowMillis)).trim()));
+        config.setKeepaliveIntervalMillis(Long.parseLong(props.getProperty(KEEPALIVE_INTERVAL_KEY, String.valueOf(config.keepaliveIntervalMillis)).trim()));
+        config.setLeakDetectionThresholdMillis(Long.parseLong(props.getProperty(LEAK_DETECTION_THRESHOLD_KEY, String.valueOf(config.leakDetectionThresholdMillis)).trim()));
+        config.setStatementCacheSize(Integer.parseInt(props.getProperty(STATEMENT_CACHE_SIZE_KEY, String.valueOf(config.statementCacheSize)).trim()));
+        config.setFairAdmission(Boolean.parseBoolean(props.getProperty(FAIR_ADMISSION_KEY, String.valueOf(config.fairAdmission)).trim()));
+        config.setReplicaSelection(ReplicaSelection.valueOf(props.getProperty(REPLICA_SELECTION_KEY, config.replicaSelection.name())
+                .trim().toUpperCase().replace('-', '_')));
+        config.setReadAfterWriteMillis(Long.parseLong(props.getProperty(READ_AFTER_WRITE_KEY, String.valueOf(config.readAfterWriteMillis)).trim()));
+        config.setMaxLifetimeMillis(Long.parseLong(props.getProperty(MAX_LIFETIME_KEY, String.valueOf(config.maxLifetimeMillis)).trim()));
+        config.setMaxLifetimeJitterMillis(Long.parseLong(props.getProperty(MAX_LIFETIME_JITTER_KEY, String.valueOf(config.maxLifetimeJitterMillis)).trim()));
+        config.setDrainTimeoutMillis(Long.parseLong(props.getProperty(DRAIN_TIMEOUT_KEY, String.valueOf(config.drainTimeoutMillis)).trim()));
+        config.setReservedCritical(Integer.parseInt(props.getProperty(RESERVED_CRITICAL_KEY, String.valueOf(config.reservedCritical)).trim()));
+        config.setMaxWaiting(Integer.parseInt(props.getProperty(MAX_WAITING_KEY, String.valueOf(config.maxWaiting)).trim()));
+        config.setCriticalTimeoutMillis(Long.parseLong(props.getProperty(CRITICAL_TIMEOUT_KEY, String.valueOf(config.criticalTimeoutMillis)).trim()));
+        config.setBulkTimeoutMillis(Long.parseLong(props.getProperty(BULK_TIMEOUT_KEY, String.valueOf(config.bulkTimeoutMillis)).trim()));
+        return config;
+    }
+
+    /**
+     * validate
+     *
+     * Ensures the sizing policy is consistent before a pool is built from it.
+     *
+     * @throws IllegalArgumentException If any of the values are out of range.
+     */
+    public void validate() {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Minimum pool size cannot be negative: " + minSize);
+        }
+        if (maxSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Maximum pool size must be at least 1 and not below minimum size: " + maxSize);
+        }
+        if (minReady < -1 || minReady > minSize) {
+            throw new IllegalArgumentException("Minimum ready connections must be between 0 and the minimum size (or -1 for all): " + minReady);
+        }
+        if (connectionFactory == null) {
+            throw new IllegalArgumentException("Connection factory cannot be null");
+        }
+        if (idleTimeoutMillis <= 0 || housekeepingIntervalMillis <= 0 || connectionTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Pool timeouts must be positive");
+        }
+        if (validationTimeoutMillis < 1000) {
+            throw new IllegalArgumentException("Validation timeout must be at least 1000 ms: " + validationTimeoutMillis);
+        }
+        if (validationSkipWindowMillis < 0 || keepaliveIntervalMillis < 0 || leakDetectionThresholdMillis < 0) {
+            throw new IllegalArgumentException("Validation skip window, keepalive interval and leak threshold cannot be negative");
+        }
+        if (replicaSelection == null) {
+            throw new IllegalArgumentException("Replica selection cannot be null");
+        }
+        if (readAfterWriteMillis < 0) {
+            throw new IllegalArgumentException("Read-after-write window cannot be negative: " + readAfterWriteMillis);
+        }
+        if (maxLifetimeMillis < 0 || maxLifetimeJitterMillis < 0) {
+            throw new IllegalArgumentException("Max lifetime and its jitter cannot be negative");
+        }
+        if (drainTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Drain timeout cannot be negative: " + drainTimeoutMillis);
+        }
+        if (reservedCritical < 0 || reservedCritical >= maxSize) {
+            throw new IllegalArgumentException("Reserved critical connections must be between 0 and below the maximum size: " + reservedCritical);
+        }
+        if (maxWaiting < -1) {
+            throw new IllegalArgumentException("Maximum waiting borrowers must be -1 (no bound) or more: " + maxWaiting);
+        }
+        if (criticalTimeoutMillis < -1 || bulkTimeoutMillis < -1) {
+            throw new IllegalArgumentException("Lane timeouts must be -1 (default timeout) or more");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative: " + statementCacheSize);
+        }
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * getMinReady
+     *
+     * @return int - How many of the initial connections must be open before the pool
+     *               constructor returns; the rest are opened in the background.
+     */
+    public int getMinReady() {
+        return minReady < 0 ? minSize : minReady;
+    }
+
+    public void setMinReady(int minReady) {
+        this.minReady = minReady;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return housekeepingIntervalMillis;
+    }
+
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getValidationTimeoutMillis() {
+        return validationTimeoutMillis;
+    }
+
+    public void setValidationTimeoutMillis(long validationTimeoutMillis) {
+        this.validationTimeoutMillis = validationTimeoutMillis;
+    }
+
+    public long getValidationSkipWindowMillis() {
+        return validationSkipWindowMillis;
+    }
+
+    public void setValidationSkipWindowMillis(long validationSkipWindowMillis) {
+        this.validationSkipWindowMillis = validationSkipWindowMillis;
+    }
+
+    public long getKeepaliveIntervalMillis() {
+        return keepaliveIntervalMillis;
+    }
+
+    public void setKeepaliveIntervalMillis(long keepaliveIntervalMillis) {
+        this.keepaliveIntervalMillis = keepaliveIntervalMillis;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public boolean isFairAdmission() {
+        return fairAdmission;
+    }
+
+    public void setFairAdmission(boolean fairAdmission) {
+        this.fairAdmission = fairAdmission;
+    }
+
+    public ReplicaSelection getReplicaSelection() {
+        return replicaSelection;
+    }
+
+    public void setReplicaSelection(ReplicaSelection replicaSelection) {
+        this.replicaSelection = replicaSelection;
+    }
+
+    /**
+     * getConnectionTimeoutMillis
+     *
+     * @param Priority priority - The borrower's lane.
+     * @return long - The connection timeout of the lane.
+     */
+    public long getConnectionTimeoutMillis(Priority priority) {
+        long timeout = switch (priority) {
+            case CRITICAL -> criticalTimeoutMillis;
+            case BULK -> bulkTimeoutMillis;
+            case NORMAL -> -1;
+        };
+        return timeout >= 0 ? timeout : connectionTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getMaxLifetimeJitterMillis() {
+        return maxLifetimeJitterMillis;
+    }
+
+    public void setMaxLifetimeJitterMillis(long maxLifetimeJitterMillis) {
+        this.maxLifetimeJitterMillis = maxLifetimeJitterMillis;
+    }
+
+    public long getDrainTimeoutMillis() {
+        return drainTimeoutMillis;
+    }
+
+    public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    public int getReservedCritical() {
+        return reservedCritical;
+    }
+
+    public void setReservedCritical(int reservedCritical) {
+        this.reservedCritical = reservedCritical;
+    }
+
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    public void setMaxWaiting(int maxWaiting) {
+        this.maxWaiting = maxWaiting;
+    }
+
+    public long getCriticalTimeoutMillis() {
+        return criticalTimeoutMillis;
+    }
+
+    public void setCriticalTimeoutMillis(long criticalTimeoutMillis) {
+        this.criticalTimeoutMillis = criticalTimeoutMillis;
+    }
+
+    public long getBulkTimeoutMillis() {
+        return bulkTimeoutMillis;
+    }
+
+    public void setBulkTimeoutMillis(long bulkTimeoutMillis) {
+        this.bulkTimeoutMillis = bulkTimeoutMillis;
+    }
+
+    public long getReadAfterWriteMillis() {
+        return readAfterWriteMillis;
+    }
+
+    public void setReadAfterWriteMillis(long readAfterWriteMillis) {
+        this.readAfterWriteMillis = readAfterWriteMillis;
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public void setConnectionFactory(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+}
@@ -0,0 +1,48 @@
+package util.jdbc;
+
+/**
+ * ConnectionPoolMXBean
+ *
+ * Management interface of a connection pool, registered with the platform
+ * MBean server as util.jdbc:type=ConnectionPool,name=poolName.
+ * Durations are reported in microseconds.
+ */
+public interface ConnectionPoolMXBean {
+    String getPoolName();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getPendingThreads();
+
+    long getConnectionsCreated();
+
+    long getConnectionsDestroyed();
+
+    long getBorrowCount();
+
+    long getTimeoutCount();
+
+    long getRejectedCount();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    long getWaitTimeP50Micros();
+
+    long getWaitTimeP99Micros();
+
+    long getWaitTimeMaxMicros();
+
+    long getHoldTimeP50Micros();
+
+    long getHoldTimeP99Micros();
+
+    long getHoldTimeMaxMicros();
+
+    void resetHistograms();
+}
@@ -1,22 +1,167 @@
 package util.jdbc;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 /**
  * ConnectionPoolSingleton
  *
  * Instantiate a connection pool singleton to avoid spawning multiple pools.
+ * The pool policy is read from the .env file (see ConnectionPoolConfig),
+ * and every server listed in DB_REPLICAS gets a replica pool. Connections
+ * use the driver profiles named by DB_PROFILE and DB_REPLICA_PROFILE.
+ * When DB_SHARDS lists shard servers, getRegistry() maps facilities onto
+ * one pool per shard; otherwise the registry routes everything to the pool.
+ * The pool is created on first use rather than when the class is loaded;
+ * call warmUp() early during startup to open it ahead of the first request.
+ * A JVM shutdown hook drains the pools, giving in-flight work up to
+ * POOL_DRAIN_TIMEOUT_MS to return its connections.
  */
 public class ConnectionPoolSingleton {
-    private static final ConnectionPool instance = new ConnectionPool(3);
+    private static volatile ConnectionPool instance;
+    private static volatile DataSourceRegistry registry;
 
     private ConnectionPoolSingleton() {
         // STUB
     }
 
     public static ConnectionPool getInstance() {
-        return instance;
+        ConnectionPool pool = instance;
+        if (pool == null) {
+            synchronized (ConnectionPoolSingleton.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = createPool();
+                    DataSourceRegistry shards;
+                    try {
+                        shards = createRegistry(pool);
+                    } catch (RuntimeException e) {
+                        pool.shutdown();
+                        throw e;
+                    }
+                    registry = shards;
+                    instance = pool;
+                    ConnectionPool created = pool;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> drain(created, shards),
+                            created.getPoolName() + "-drain"));
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * createPool
+     *
+     * Creates the primary pool and one replica pool per DB_REPLICAS entry.
+     * Replica pools share the pool policy of the primary but connect with
+     * the replica driver profile.
+     *
+     * @return ConnectionPool - The primary pool with its replicas attached.
+     */
+    private static ConnectionPool createPool() {
+        ConnectionPool primary = new ConnectionPool(ConnectionPoolConfig.fromEnvironment());
+
+        List<ConnectionPool> replicas = new ArrayList<>();
+        try {
+            DriverProfile replicaProfile = JdbcConnection.getReplicaDriverProfile();
+            for (String address : JdbcConnection.getReplicaAddresses()) {
+                ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+                config.setPoolName(primary.getPoolName() + "-replica-" + (replicas.size() + 1));
+                config.setConnectionFactory(() -> JdbcConnection.createConnection(address, replicaProfile));
+                replicas.add(new ConnectionPool(config));
+            }
+        } catch (RuntimeException e) {
+            replicas.forEach(ConnectionPool::shutdown);
+            primary.shutdown();
+            throw e;
+        }
+        primary.setReplicas(replicas);
+        return primary;
+    }
+
+    /**
+     * getRegistry
+     *
+     * @return DataSourceRegistry - The facility shards, backed by the primary pool when there are none.
+     */
+    public static DataSourceRegistry getRegistry() {
+        getInstance();
+        return registry;
+    }
+
+    /**
+     * createRegistry
+     *
+     * Creates one pool per DB_SHARDS entry, mapped by DB_SHARDING (RANGE or
+     * HASH, default HASH) and, for RANGE, the bounds in DB_SHARD_RANGES.
+     * Shard pools share the pool policy and driver profile of the primary.
+     *
+     * @param ConnectionPool primary - The pool of the shared tables.
+     * @return DataSourceRegistry - The registry, unsharded if DB_SHARDS is empty.
+     */
+    private static DataSourceRegistry createRegistry(ConnectionPool primary) {
+        List<String> addresses = JdbcConnection.getShardAddresses();
+        if (addresses.isEmpty()) {
+            return DataSourceRegistry.single(primary);
+        }
+
+        Properties props = JdbcConnection.getProperties();
+        DataSourceRegistry.ShardStrategy strategy = DataSourceRegistry.ShardStrategy.fromName(
+                props.getProperty(DataSourceRegistry.SHARDING_KEY, DataSourceRegistry.ShardStrategy.HASH.name()));
+        int[] rangeBounds = DataSourceRegistry.parseRangeBounds(props.getProperty(DataSourceRegistry.SHARD_RANGES_KEY));
+
+        List<ConnectionPool> shards = new ArrayList<>();
+        try {
+            for (String address : addresses) {
+                ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+                config.setPoolName(primary.getPoolName() + "-shard-" + (shards.size() + 1));
+                config.setConnectionFactory(() -> JdbcConnection.createConnection(address, JdbcConnection.getDriverProfile()));
+                shards.add(new ConnectionPool(config));
+            }
+            return new DataSourceRegistry(primary, shards, strategy, rangeBounds);
+        } catch (RuntimeException e) {
+            shards.forEach(ConnectionPool::shutdown);
+            throw e;
+        }
     }
 
+    /**
+     * warmUp
+     *
+     * Creates the pool now. Returns once POOL_MIN_READY connections are open;
+     * the remaining ones keep opening in the background.
+     */
+    public static void warmUp() {
+        getInstance();
+    }
+
+    /**
+     * shutdown
+     *
+     * Drains the shard pools and the pool, waiting up to POOL_DRAIN_TIMEOUT_MS
+     * in total for borrowed connections.
+     */
     public static void shutdown() {
-        instance.shutdown();
+        ConnectionPool pool = instance;
+        if (pool != null) {
+            drain(pool, registry);
+        }
+    }
+
+    /**
+     * drain
+     *
+     * Drains the shard pools, then the pool with whatever is left of one
+     * POOL_DRAIN_TIMEOUT_MS deadline.
+     *
+     * @param ConnectionPool pool - The primary pool.
+     * @param DataSourceRegistry shards - The registry of the shard pools.
+     */
+    private static void drain(ConnectionPool pool, DataSourceRegistry shards) {
+        long deadline = System.currentTimeMillis() + pool.getConfig().getDrainTimeoutMillis();
+        shards.drain(pool.getConfig().getDrainTimeoutMillis());
+        pool.drain(Math.max(0, deadline - System.currentTimeMillis()));
     }
 }
@@ -0,0 +1,180 @@
+package util.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * DataSourceRegistry
+ *
+ * Maps catering facilities to the database that holds their data. The
+ * global pool serves the tables every facility shares (airlines, flights,
+ * facilities); the facility-scoped tables (inventory, catering orders and
+ * the items and order lines that hang off them) are split across shard
+ * pools by facility_id, either by range or by hash bucket.
+ *
+ * RANGE - Shard i holds the facility ids below the i-th bound; the last
+ *         shard holds everything from the last bound up.
+ * HASH  - Shard facility_id modulo the shard count.
+ *
+ * Without shards the registry routes everything to the global pool.
+ */
+public class DataSourceRegistry {
+    public static final String SHARDING_KEY = "DB_SHARDING";
+    public static final String SHARD_RANGES_KEY = "DB_SHARD_RANGES";
+
+    /**
+     * ShardStrategy
+     *
+     * How a facility id is mapped to a shard.
+     */
+    public enum ShardStrategy {
+        RANGE,
+        HASH;
+
+        /**
+         * fromName
+         *
+         * @param String name - The strategy name, in any case.
+         * @return ShardStrategy - The matching strategy.
+         * @throws IllegalArgumentException If no strategy has that name.
+         */
+        public static ShardStrategy fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final ConnectionPool globalPool;
+    private final List<ConnectionPool> shards;
+    private final ShardStrategy strategy;
+    private final int[] rangeBounds;
+
+    /**
+     * DataSourceRegistry
+     *
+     * @param ConnectionPool globalPool - The pool of the shared tables.
+     * @param List shards - The shard pools, in shard order.
+     * @param ShardStrategy strategy - How facility ids map to shards.
+     * @param int[] rangeBounds - For RANGE, the ascending exclusive upper bound of every shard but the last.
+     * @throws IllegalArgumentException If the shards or bounds are inconsistent.
+     */
+    public DataSourceRegistry(ConnectionPool globalPool, List<ConnectionPool> shards, ShardStrategy strategy, int[] rangeBounds) {
+        if (globalPool == null || shards == null || shards.isEmpty() || strategy == null) {
+            throw new IllegalArgumentException("A global pool, a shard strategy and at least one shard are required");
+        }
+        if (strategy == ShardStrategy.RANGE) {
+            if (rangeBounds == null || rangeBounds.length != shards.size() - 1) {
+                throw new IllegalArgumentException("RANGE sharding needs one bound less than the " + shards.size() + " shards");
+            }
+            for (int i = 1; i < rangeBounds.length; i++) {
+                if (rangeBounds[i] <= rangeBounds[i - 1]) {
+                    throw new IllegalArgumentException("Shard range bounds must be ascending: " + Arrays.toString(rangeBounds));
+                }
+            }
+        }
+
+        this.globalPool = globalPool;
+        this.shards = List.copyOf(shards);
+        this.strategy = strategy;
+        this.rangeBounds = rangeBounds == null ? new int[0] : rangeBounds.clone();
+    }
+
+    /**
+     * single
+     *
+     * Creates a registry without shards, where every facility lives in the given pool.
+     *
+     * @param ConnectionPool pool - The only database.
+     * @return DataSourceRegistry - The unsharded registry.
+     */
+    public static DataSourceRegistry single(ConnectionPool pool) {
+        return new DataSourceRegistry(pool, List.of(pool), ShardStrategy.HASH, null);
+    }
+
+    /**
+     * parseRangeBounds
+     *
+     * Parses DB_SHARD_RANGES, a comma separated list of facility ids.
+     *
+     * @param String value - The property value, may be null.
+     * @return int[] - The bounds, empty if none are set.
+     */
+    public static int[] parseRangeBounds(String value) {
+        List<Integer> bounds = new ArrayList<>();
+        if (value != null) {
+            for (String bound : value.split(",")) {
+                if (!bound.isBlank()) {
+                    bounds.add(Integer.parseInt(bound.trim()));
+                }
+            }
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * getPool
+     *
+     * @param int facilityId - The facility.
+     * @return ConnectionPool - The shard holding the facility's data.
+     */
+    public ConnectionPool getPool(int facilityId) {
+        return shards.get(getShardIndex(facilityId));
+    }
+
+    /**
+     * getShardIndex
+     *
+     * @param int facilityId - The facility.
+     * @return int - The zero-based index of the facility's shard.
+     */
+    public int getShardIndex(int facilityId) {
+        if (strategy == ShardStrategy.HASH) {
+            return Math.floorMod(facilityId, shards.size());
+        }
+
+        int index = 0;
+        while (index < rangeBounds.length && facilityId >= rangeBounds[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * isSharded
+     *
+     * @return boolean - Whether facility data is spread over pools other than the global one.
+     */
+    public boolean isSharded() {
+        return shards.size() > 1 || shards.getFirst() != globalPool;
+    }
+
+    public ConnectionPool getGlobalPool() {
+        return globalPool;
+    }
+
+    public List<ConnectionPool> getShards() {
+        return shards;
+    }
+
+    public ShardStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * drain
+     *
+     * Drains every shard pool, sharing one deadline. The global pool is left
+     * to its owner.
+     *
+     * @param long timeoutMillis - How long to wait for borrowed connections in total.
+     */
+    public void drain(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (ConnectionPool shard : shards) {
+            if (shard != globalPool) {
+                shard.drain(Math.max(0, deadline - System.currentTimeMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package util.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * DriverProfile
+ *
+ * Named sets of MySQL Connector/J properties tuned for a kind of workload.
+ * The defaults live in driver-profiles.properties, keyed by the profile
+ * name (oltp.useServerPrepStmts = true); the .env file can override or add
+ * properties with the same keys. DB_PROFILE selects the profile of the
+ * primary pool and DB_REPLICA_PROFILE the one of the replica pools.
+ *
+ * OLTP      - Short point reads and single-row writes: server-side prepared
+ *             statements and cached session state and metadata.
+ * BULK_LOAD - Batched writes: multi-row INSERT rewriting of JDBC batches.
+ * REPORTING - Large reads: cursor-based fetching so results stream in
+ *             chunks instead of being buffered whole in memory.
+ */
+public enum DriverProfile {
+    OLTP,
+    BULK_LOAD,
+    REPORTING;
+
+    public static final String PROFILE_KEY = "DB_PROFILE";
+    public static final String REPLICA_PROFILE_KEY = "DB_REPLICA_PROFILE";
+    private static final String PROFILES_RESOURCE = "driver-profiles.properties";
+    private static final Logger LOGGER = Logger.getLogger(DriverProfile.class.getName());
+    private static final Properties DEFAULTS = new Properties();
+
+    static {
+        try (InputStream inputStream = DriverProfile.class.getClassLoader().getResourceAsStream(PROFILES_RESOURCE)) {
+            if (inputStream == null) {
+                LOGGER.warning(PROFILES_RESOURCE + " is not on the classpath, driver profiles only use .env properties.");
+            } else {
+                DEFAULTS.load(inputStream);
+            }
+        } catch (IOException io) {
+            LOGGER.log(Level.WARNING, "Exception during " + PROFILES_RESOURCE + " load:", io);
+        }
+    }
+
+    /**
+     * getKey
+     *
+     * @return String - The prefix of this profile's properties, e.g. "bulk-load".
+     */
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * getDriverProperties
+     *
+     * Resolves the Connector/J properties of this profile: the bundled
+     * defaults, overridden by any matching keys in the given properties.
+     *
+     * @param Properties overrides - Typically the .env properties.
+     * @return Properties - The driver properties, without the profile prefix.
+     */
+    public Properties getDriverProperties(Properties overrides) {
+        Properties driverProps = new Properties();
+        copyProfileProperties(DEFAULTS, driverProps);
+        copyProfileProperties(overrides, driverProps);
+        return driverProps;
+    }
+
+    /**
+     * fromName
+     *
+     * Parses a profile name, accepting any case and '-' for '_' (bulk-load).
+     *
+     * @param String name - The profile name.
+     * @return DriverProfile - The matching profile.
+     * @throws IllegalArgumentException If no profile has that name.
+     */
+    public static DriverProfile fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    private void copyProfileProperties(Properties source, Properties target) {
+        String prefix = getKey() + ".";
+        for (String key : source.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                target.setProperty(key.substring(prefix.length()), source.getProperty(key).trim());
+            }
+        }
+    }
+}
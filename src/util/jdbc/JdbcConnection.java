@@ -32,6 +32,75 @@ public class JdbcConnection {
         }
     }
 
+    /**
+     * getProperties
+     *
+     * Returns a copy of the environment variables loaded from the .env file.
+     *
+     * @return Properties - The environment variables.
+     */
+    public static Properties getProperties() {
+        Properties copy = new Properties();
+        copy.putAll(props);
+        return copy;
+    }
+
+    /**
+     * getReplicaAddresses
+     *
+     * Reads DB_REPLICAS, a comma separated list of host:port replica servers.
+     *
+     * @return List - The replica addresses, empty if no replicas are configured.
+     */
+    public static List<String> getReplicaAddresses() {
+        return getAddresses("DB_REPLICAS");
+    }
+
+    /**
+     * getShardAddresses
+     *
+     * Reads DB_SHARDS, a comma separated list of host:port servers holding the
+     * facility-scoped tables, in shard order.
+     *
+     * @return List - The shard addresses, empty if the facilities are not sharded.
+     */
+    public static List<String> getShardAddresses() {
+        return getAddresses("DB_SHARDS");
+    }
+
+    private static List<String> getAddresses(String key) {
+        List<String> addresses = new ArrayList<>();
+        for (String address : props.getProperty(key, "").split(",")) {
+            if (!address.isBlank()) {
+                addresses.add(address.trim());
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * getDriverProfile
+     *
+     * Reads DB_PROFILE, the driver profile of connections to the primary server.
+     *
+     * @return DriverProfile - The configured profile, OLTP if none is set.
+     */
+    public static DriverProfile getDriverProfile() {
+        return DriverProfile.fromName(props.getProperty(DriverProfile.PROFILE_KEY, DriverProfile.OLTP.name()));
+    }
+
+    /**
+     * getReplicaDriverProfile
+     *
+     * Reads DB_REPLICA_PROFILE, the driver profile of connections to the replicas.
+     *
+     * @return DriverProfile - The configured profile, the primary's profile if none is set.
+     */
+    public static DriverProfile getReplicaDriverProfile() {
+        String name = props.getProperty(DriverProfile.REPLICA_PROFILE_KEY);
+        return name == null || name.isBlank() ? getDriverProfile() : DriverProfile.fromName(name);
+    }
+
     /**
      * createConnection
      *
@@ -41,13 +110,40 @@ public class JdbcConnection {
      * @throws SQLException Any exceptions that occur with JDBC connection.
      */
     public static Connection createConnection() throws SQLException {
-        String sourceURL = "jdbc:mysql://"
-                + props.getProperty("DB_HOST")
-                + ":" + props.getProperty("DB_PORT")
-                + "/" + props.getProperty("DB_NAME");
-
-        return DriverManager.getConnection(sourceURL,
-                props.getProperty("DB_USERNAME"),
-                props.getProperty("DB_PASSWORD"));
+        return createConnection(getDriverProfile());
+    }
+
+    /**
+     * createConnection
+     *
+     * Instantiate an individual JDBC connection to the primary server with the
+     * given driver profile.
+     *
+     * @param DriverProfile profile - The driver properties to connect with.
+     * @return Connection - The JDBC connection to the database.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public static Connection createConnection(DriverProfile profile) throws SQLException {
+        return createConnection(props.getProperty("DB_HOST") + ":" + props.getProperty("DB_PORT"), profile);
+    }
+
+    /**
+     * createConnection
+     *
+     * Instantiate an individual JDBC connection to the given server, using the
+     * database name and credentials of the .env file.
+     *
+     * @param String address - The server as host:port.
+     * @param DriverProfile profile - The driver properties to connect with.
+     * @return Connection - The JDBC connection to the database.
+     * @throws SQLException Any exceptions that occur with JDBC connection.
+     */
+    public static Connection createConnection(String address, DriverProfile profile) throws SQLException {
+        String sourceURL = "jdbc:mysql://" + address + "/" + props.getProperty("DB_NAME");
+
+        Properties info = profile.getDriverProperties(props);
+        info.setProperty("user", props.getProperty("DB_USERNAME"));
+        info.setProperty("password", props.getProperty("DB_PASSWORD"));
+        return DriverManager.getConnection(sourceURL, info);
     }
 }
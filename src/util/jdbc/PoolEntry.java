@@ -0,0 +1,74 @@
+package util.jdbc;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * PoolEntry
+ *
+ * Book-keeping wrapper around a physical JDBC connection owned by the pool.
+ * Ownership is claimed by compare-and-set on the state flag, so an entry
+ * can sit in several thread-local lists without ever being handed out twice.
+ */
+class PoolEntry {
+    static final int STATE_NOT_IN_USE = 0;
+    static final int STATE_IN_USE = 1;
+    static final int STATE_RESERVED = -1;
+    static final int STATE_REMOVED = -2;
+
+    private static final AtomicIntegerFieldUpdater<PoolEntry> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(PoolEntry.class, "state");
+
+    final ConnectionPool pool;
+    final Connection connection;
+    final StatementCache statementCache; // null when statement caching is disabled
+    final long createdAt;
+    volatile long lastAccessed;
+    volatile long lastKeepalive;
+    long retireAt = Long.MAX_VALUE; // set once before the entry is published
+
+    // Connection defaults, captured the first time a borrower changes the property.
+    // Only touched by the borrowing thread; the state CAS orders borrows.
+    Boolean defaultAutoCommit;
+    Integer defaultTransactionIsolation;
+    Boolean defaultReadOnly;
+    String defaultCatalog; // may be null, see catalogCaptured
+    String defaultSchema; // may be null, see schemaCaptured
+    boolean catalogCaptured;
+    boolean schemaCaptured;
+    private volatile int state = STATE_IN_USE;
+
+    PoolEntry(ConnectionPool pool, Connection connection, StatementCache statementCache) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessed = createdAt;
+    }
+
+    /**
+     * getLastActivity
+     *
+     * @return long - The last time the connection was known to be alive (released or kept alive).
+     */
+    long getLastActivity() {
+        return Math.max(lastAccessed, lastKeepalive);
+    }
+
+    int getState() {
+        return state;
+    }
+
+    void setState(int newState) {
+        state = newState;
+    }
+
+    boolean compareAndSet(int expect, int update) {
+        return STATE_UPDATER.compareAndSet(this, expect, update);
+    }
+
+    @Override
+    public String toString() {
+        return connection + " (state=" + state + ")";
+    }
+}
@@ -0,0 +1,195 @@
+package util.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PoolMetrics
+ *
+ * Instrumentation surface of a connection pool. Gauges (active, idle,
+ * pending...) are read live from the pool, counters and histograms are
+ * updated by the pool on every borrow and release. Available through
+ * ConnectionPool.getMetrics() and exported over JMX.
+ */
+public class PoolMetrics implements ConnectionPoolMXBean {
+    private final ConnectionPool pool;
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsDestroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+
+    PoolMetrics(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    void recordConnectionCreated() {
+        connectionsCreated.increment();
+    }
+
+    void recordConnectionDestroyed() {
+        connectionsDestroyed.increment();
+    }
+
+    void recordTimeout() {
+        timeouts.increment();
+    }
+
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    void recordWait(long nanos) {
+        waitTime.record(nanos);
+    }
+
+    void recordHold(long nanos) {
+        holdTime.record(nanos);
+    }
+
+    /**
+     * getWaitTimeHistogram
+     *
+     * @return LatencyHistogram - Time spent in getConnection for successful borrows, in nanoseconds.
+     */
+    public LatencyHistogram getWaitTimeHistogram() {
+        return waitTime;
+    }
+
+    /**
+     * getHoldTimeHistogram
+     *
+     * @return LatencyHistogram - Time between borrow and release, in nanoseconds.
+     */
+    public LatencyHistogram getHoldTimeHistogram() {
+        return holdTime;
+    }
+
+    @Override
+    public String getPoolName() {
+        return pool.getPoolName();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return pool.getActiveConnections();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return pool.getIdleConnections();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return pool.getTotalConnections();
+    }
+
+    @Override
+    public int getPendingThreads() {
+        return pool.getPendingThreads();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    @Override
+    public long getConnectionsDestroyed() {
+        return connectionsDestroyed.sum();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return waitTime.getCount();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    @Override
+    public long getWaitTimeP50Micros() {
+        return toMicros(waitTime.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getWaitTimeP99Micros() {
+        return toMicros(waitTime.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getWaitTimeMaxMicros() {
+        return toMicros(waitTime.getMaxNanos());
+    }
+
+    @Override
+    public long getHoldTimeP50Micros() {
+        return toMicros(holdTime.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getHoldTimeP99Micros() {
+        return toMicros(holdTime.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getHoldTimeMaxMicros() {
+        return toMicros(holdTime.getMaxNanos());
+    }
+
+    @Override
+    public void resetHistograms() {
+        waitTime.reset();
+        holdTime.reset();
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return getPoolName()
+                + " [active=" + getActiveConnections()
+                + ", idle=" + getIdleConnections()
+                + ", total=" + getTotalConnections()
+                + ", pending=" + getPendingThreads()
+                + ", created=" + getConnectionsCreated()
+                + ", destroyed=" + getConnectionsDestroyed()
+                + ", borrows=" + getBorrowCount()
+                + ", timeouts=" + getTimeoutCount()
+                + ", rejected=" + getRejectedCount()
+                + ", statement cache hits/misses=" + getStatementCacheHits() + "/" + getStatementCacheMisses()
+                + ", wait p50/p99/max=" + getWaitTimeP50Micros() + "/" + getWaitTimeP99Micros() + "/" + getWaitTimeMaxMicros() + " us"
+                + ", hold p50/p99/max=" + getHoldTimeP50Micros() + "/" + getHoldTimeP99Micros() + "/" + getHoldTimeMaxMicros() + " us]";
+    }
+}
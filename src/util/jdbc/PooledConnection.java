@@ -0,0 +1,510 @@
+package util.jdbc;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * PooledConnection
+ *
+ * Lightweight proxy handed out by the connection pool for every borrow.
+ * Calling close() returns the underlying connection to the pool instead of
+ * closing it, so callers can use try-with-resources. A closed proxy rejects
+ * any further use, which keeps a stale reference from touching a connection
+ * that has since been lent to another thread.
+ *
+ * prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) go
+ * through the connection's StatementCache when one is configured.
+ *
+ * Changes to auto-commit, transaction isolation, read-only, catalog and
+ * schema are tracked as dirty bits. On release only the changed properties
+ * are reset to the connection's defaults, so borrowers that leave them alone
+ * cost no extra round trips. A catalog or schema that was switched away from
+ * none cannot be reset and gets the connection discarded instead.
+ */
+final class PooledConnection implements Connection {
+    private static final int STATEMENT_PRUNE_THRESHOLD = 32;
+
+    static final int DIRTY_AUTO_COMMIT = 1;
+    static final int DIRTY_TRANSACTION_ISOLATION = 1 << 1;
+    static final int DIRTY_READ_ONLY = 1 << 2;
+    static final int DIRTY_CATALOG = 1 << 3;
+    static final int DIRTY_SCHEMA = 1 << 4;
+
+    private final ConnectionPool pool;
+    final PoolEntry entry;
+    final Connection delegate;
+    final Priority priority;
+    final long borrowedAt;
+    private final List<Statement> openStatements = new ArrayList<>();
+    private volatile boolean closed = false;
+    private int dirtyBits = 0;
+
+    // Leak detection, only set when a threshold is configured
+    Exception borrowTrace;
+    ScheduledFuture<?> leakTask;
+    volatile boolean leakReported = false;
+
+    PooledConnection(ConnectionPool pool, PoolEntry entry, Priority priority) {
+        this.pool = pool;
+        this.entry = entry;
+        this.priority = priority;
+        this.delegate = entry.connection;
+        this.borrowedAt = System.nanoTime();
+    }
+
+    /**
+     * close
+     *
+     * Closes the statements opened through this proxy and returns the
+     * underlying connection to the pool. Closing twice has no effect.
+     *
+     * @throws SQLException Never thrown; declared by Connection.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (Statement stmt : openStatements) {
+            try {
+                stmt.close();
+            } catch (SQLException ignored) {
+                // The connection is being recycled either way
+            }
+        }
+        openStatements.clear();
+
+        pool.recycle(this);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || delegate.isClosed();
+    }
+
+    /**
+     * resetState
+     *
+     * Restores the properties the borrower changed to the connection's defaults.
+     * A transaction left open with auto-commit disabled is rolled back first.
+     *
+     * @throws SQLException If the connection could not be reset; it should then be discarded.
+     */
+    void resetState() throws SQLException {
+        if (dirtyBits == 0) {
+            return;
+        }
+
+        if ((dirtyBits & DIRTY_AUTO_COMMIT) != 0 && !delegate.getAutoCommit()) {
+            delegate.rollback();
+        }
+        if ((dirtyBits & DIRTY_TRANSACTION_ISOLATION) != 0) {
+            delegate.setTransactionIsolation(entry.defaultTransactionIsolation);
+        }
+        if ((dirtyBits & DIRTY_READ_ONLY) != 0) {
+            delegate.setReadOnly(entry.defaultReadOnly);
+        }
+        if ((dirtyBits & DIRTY_CATALOG) != 0) {
+            if (entry.defaultCatalog != null) {
+                delegate.setCatalog(entry.defaultCatalog);
+            } else if (delegate.getCatalog() != null) {
+                throw new SQLException("Cannot reset catalog " + delegate.getCatalog() + " to none");
+            }
+        }
+        if ((dirtyBits & DIRTY_SCHEMA) != 0) {
+            if (entry.defaultSchema != null) {
+                delegate.setSchema(entry.defaultSchema);
+            } else if (delegate.getSchema() != null) {
+                throw new SQLException("Cannot reset schema " + delegate.getSchema() + " to none");
+            }
+        }
+        if ((dirtyBits & DIRTY_AUTO_COMMIT) != 0) {
+            delegate.setAutoCommit(entry.defaultAutoCommit);
+        }
+        dirtyBits = 0;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection has already been returned to the pool");
+        }
+    }
+
+    private <S extends Statement> S track(S stmt) {
+        if (openStatements.size() >= STATEMENT_PRUNE_THRESHOLD) {
+            openStatements.removeIf(s -> {
+                try {
+                    return s.isClosed();
+                } catch (SQLException e) {
+                    return true;
+                }
+            });
+        }
+        openStatements.add(stmt);
+        return stmt;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement());
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement(resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        if (entry.statementCache != null) {
+            return track(entry.statementCache.prepareStatement(this, sql, Statement.NO_GENERATED_KEYS));
+        }
+        return track(delegate.prepareStatement(sql));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        if (entry.statementCache != null) {
+            return track(entry.statementCache.prepareStatement(this, sql, autoGeneratedKeys));
+        }
+        return track(delegate.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, columnIndexes));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, columnNames));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        checkOpen();
+        return delegate.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        if (entry.defaultAutoCommit == null) {
+            entry.defaultAutoCommit = delegate.getAutoCommit();
+        }
+        delegate.setAutoCommit(autoCommit);
+        dirtyBits |= DIRTY_AUTO_COMMIT;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return delegate.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        delegate.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        delegate.rollback();
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.rollback(savepoint);
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        if (entry.defaultReadOnly == null) {
+            entry.defaultReadOnly = delegate.isReadOnly();
+        }
+        delegate.setReadOnly(readOnly);
+        dirtyBits |= DIRTY_READ_ONLY;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return delegate.isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        checkOpen();
+        if (!entry.catalogCaptured) {
+            entry.defaultCatalog = delegate.getCatalog();
+            entry.catalogCaptured = true;
+        }
+        delegate.setCatalog(catalog);
+        dirtyBits |= DIRTY_CATALOG;
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        checkOpen();
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        if (entry.defaultTransactionIsolation == null) {
+            entry.defaultTransactionIsolation = delegate.getTransactionIsolation();
+        }
+        delegate.setTransactionIsolation(level);
+        dirtyBits |= DIRTY_TRANSACTION_ISOLATION;
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return delegate.getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        checkOpen();
+        return delegate.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        checkOpen();
+        delegate.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        checkOpen();
+        delegate.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return delegate.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint(name);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        checkOpen();
+        return delegate.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        checkOpen();
+        return delegate.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        checkOpen();
+        return delegate.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        checkOpen();
+        return delegate.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !closed && delegate.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        delegate.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        delegate.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        checkOpen();
+        return delegate.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        checkOpen();
+        return delegate.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        checkOpen();
+        if (!entry.schemaCaptured) {
+            entry.defaultSchema = delegate.getSchema();
+            entry.schemaCaptured = true;
+        }
+        delegate.setSchema(schema);
+        dirtyBits |= DIRTY_SCHEMA;
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        checkOpen();
+        return delegate.getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        checkOpen();
+        delegate.abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        checkOpen();
+        delegate.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        checkOpen();
+        return delegate.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        return "PooledConnection[" + delegate + (closed ? ", returned" : "") + "]";
+    }
+}
@@ -0,0 +1,32 @@
+package util.jdbc;
+
+/**
+ * PrimarySession
+ *
+ * Pins the reads of the current thread to the primary pool until closed,
+ * for code that must read its own writes. Obtained from
+ * ConnectionPool.pinToPrimary() and meant for try-with-resources; it has
+ * to be closed on the thread that opened it.
+ */
+public final class PrimarySession implements AutoCloseable {
+    private final ReplicaRouter router; // null when the pool has no replicas
+    private boolean closed = false;
+
+    PrimarySession(ReplicaRouter router) {
+        this.router = router;
+        if (router != null) {
+            router.pin();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (router != null) {
+            router.unpin();
+        }
+    }
+}
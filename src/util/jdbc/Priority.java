@@ -0,0 +1,15 @@
+package util.jdbc;
+
+/**
+ * Priority
+ *
+ * Lane a borrower asks for a connection in. CRITICAL borrowers may use the
+ * reserved capacity of the pool and are never rejected by the wait queue
+ * bound; NORMAL and BULK share the rest. Each lane has its own connection
+ * timeout (see ConnectionPoolConfig).
+ */
+public enum Priority {
+    CRITICAL,
+    NORMAL,
+    BULK
+}
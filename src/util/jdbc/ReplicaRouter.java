@@ -0,0 +1,119 @@
+package util.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * ReplicaRouter
+ *
+ * Routes read connections of a primary pool to its replica pools, either
+ * round-robin or to the least busy replica. A thread that wrote through
+ * the primary keeps reading from the primary for the read-after-write
+ * window, and so does a thread inside a PrimarySession, so callers see
+ * their own writes despite replication lag. If a replica cannot hand out a
+ * connection the read falls back to the primary.
+ */
+class ReplicaRouter {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    private final ConnectionPool primary;
+    private final List<ConnectionPool> replicas;
+    private final ConnectionPoolConfig.ReplicaSelection selection;
+    private final long readAfterWriteNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Session> sessions = ThreadLocal.withInitial(Session::new);
+
+    ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = primary.getConfig().getReplicaSelection();
+        this.readAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(primary.getConfig().getReadAfterWriteMillis());
+    }
+
+    /**
+     * getReadConnection
+     *
+     * @param Priority priority - The lane to borrow in.
+     * @return Connection - A replica connection, or a primary one if the thread is pinned to the primary.
+     * @throws SQLException If neither a replica nor the primary can hand out a connection.
+     */
+    Connection getReadConnection(Priority priority) throws SQLException {
+        if (isPinned()) {
+            return primary.getConnection(priority);
+        }
+
+        ConnectionPool replica = selectReplica();
+        try {
+            return replica.getConnection(priority);
+        } catch (SQLTransientConnectionException e) {
+            throw e; // load shedding, do not move the overload onto the primary
+        } catch (SQLException | IllegalStateException e) {
+            LOGGER.warning("Replica " + replica.getPoolName() + " unavailable, reading from primary: " + e.getMessage());
+            return primary.getConnection(priority);
+        }
+    }
+
+    /**
+     * markWrite
+     *
+     * Records that the current thread wrote through the primary.
+     */
+    void markWrite() {
+        sessions.get().lastWrite = System.nanoTime();
+    }
+
+    void pin() {
+        sessions.get().pinned++;
+    }
+
+    void unpin() {
+        Session session = sessions.get();
+        if (session.pinned > 0) {
+            session.pinned--;
+        }
+    }
+
+    List<ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    boolean isPinned() {
+        Session session = sessions.get();
+        return session.pinned > 0
+                || (session.lastWrite != 0 && System.nanoTime() - session.lastWrite < readAfterWriteNanos);
+    }
+
+    private ConnectionPool selectReplica() {
+        if (replicas.size() == 1) {
+            return replicas.getFirst();
+        }
+        if (selection == ConnectionPoolConfig.ReplicaSelection.LEAST_BUSY) {
+            ConnectionPool best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (ConnectionPool replica : replicas) {
+                int load = replica.getActiveConnections() + replica.getPendingThreads();
+                if (load < bestLoad) {
+                    best = replica;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Session
+     *
+     * Per-thread routing state.
+     */
+    private static final class Session {
+        long lastWrite; // System.nanoTime() of the last write, 0 if none
+        int pinned;
+    }
+}
@@ -0,0 +1,132 @@
+package util.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * StatementCache
+ *
+ * Bounded LRU cache of prepared statements belonging to one physical
+ * connection. Statements are keyed by SQL text and generated-key mode.
+ * A cached statement is taken out of the cache while a borrower uses it
+ * and put back when the borrower closes it, so two open statements never
+ * share the same physical statement. The least recently returned
+ * statement is closed when the cache is full.
+ */
+class StatementCache {
+    private final int maxSize;
+    private final PoolMetrics metrics;
+    private final LinkedHashMap<Key, PreparedStatement> statements = new LinkedHashMap<>(); // guarded by this
+
+    StatementCache(int maxSize, PoolMetrics metrics) {
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+    }
+
+    /**
+     * prepareStatement
+     *
+     * Returns a cached statement for the given SQL, preparing a new one on the
+     * underlying connection if none is cached.
+     *
+     * @param PooledConnection conn - The borrowed connection preparing the statement.
+     * @param String sql - The SQL text.
+     * @param int autoGeneratedKeys - Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS.
+     * @return PreparedStatement - A statement whose close() returns it to this cache.
+     * @throws SQLException Any exceptions that occur while preparing the statement.
+     */
+    PreparedStatement prepareStatement(PooledConnection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        PreparedStatement stmt;
+        synchronized (this) {
+            stmt = statements.remove(key);
+        }
+
+        if (stmt != null) {
+            metrics.recordStatementCacheHit();
+        } else {
+            metrics.recordStatementCacheMiss();
+            stmt = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                    ? conn.delegate.prepareStatement(sql)
+                    : conn.delegate.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return new CachedPreparedStatement(this, key, stmt, conn);
+    }
+
+    /**
+     * release
+     *
+     * Puts a statement back into the cache after its parameters have been
+     * cleared. If the same SQL is already cached, or the statement can no
+     * longer be reused, it is closed instead.
+     *
+     * @param Key key - The cache key of the statement.
+     * @param PreparedStatement stmt - The physical statement.
+     */
+    void release(Key key, PreparedStatement stmt) {
+        try {
+            if (stmt.isClosed()) {
+                return;
+            }
+            stmt.clearParameters();
+            stmt.clearBatch();
+            stmt.clearWarnings();
+        } catch (SQLException e) {
+            closeQuietly(stmt);
+            return;
+        }
+
+        PreparedStatement evicted = null;
+        synchronized (this) {
+            if (statements.containsKey(key)) {
+                evicted = stmt;
+            } else {
+                statements.put(key, stmt);
+                if (statements.size() > maxSize) {
+                    Iterator<PreparedStatement> eldest = statements.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            closeQuietly(evicted);
+        }
+    }
+
+    /**
+     * close
+     *
+     * Closes every cached statement. Called by the pool right before it
+     * closes the physical connection.
+     */
+    void close() {
+        Map<Key, PreparedStatement> cached;
+        synchronized (this) {
+            cached = new LinkedHashMap<>(statements);
+            statements.clear();
+        }
+        for (PreparedStatement stmt : cached.values()) {
+            closeQuietly(stmt);
+        }
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // The statement is being thrown away either way
+        }
+    }
+
+    record Key(String sql, int autoGeneratedKeys) {
+    }
+}